@@ -0,0 +1,65 @@
+package org.example.bench;
+
+import org.example.NbpProvider;
+import org.example.StooqBatchProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Parsowanie całych odpowiedzi na gotowych treściach (bez sieci): CSV Stooq z n wierszami
+// i tabela kursów NBP z n walutami. Uzupełnia QuoteParsingBenchmark, który mierzy pojedyncze liczby.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchParsingBenchmark {
+    @Param({"20", "1000", "10000"})
+    public int symbols;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final StooqBatchProvider stooq = new StooqBatchProvider(client, StooqBatchProvider.BASE_URL, Duration.ofSeconds(1));
+    private final NbpProvider nbp = new NbpProvider(client, NbpProvider.BASE_URL, Duration.ofSeconds(1));
+
+    private List<String> requested;
+    private byte[] stooqBody;
+    private byte[] nbpBody;
+
+    @Setup
+    public void setup() {
+        requested = new ArrayList<>();
+        StringBuilder csv = new StringBuilder("Symbol,Data,Czas,Otwarcie,Najwyzszy,Najnizszy,Zamkniecie\r\n");
+        StringBuilder json = new StringBuilder("[{\"table\":\"A\",\"no\":\"004/A/NBP/2024\",\"effectiveDate\":\"2024-01-05\",\"rates\":[");
+        for (int i = 0; i < symbols; i++) {
+            String symbol = String.format("s%05d", i);
+            requested.add(symbol);
+            csv.append(symbol.toUpperCase()).append(",2024-01-05,17:00:00,")
+                    .append(100 + i % 50).append(".1,").append(101 + i % 50).append(".9,")
+                    .append(99 + i % 50).append(".5,").append(100 + i % 50).append(".45\r\n");
+            if (i > 0) json.append(',');
+            json.append("{\"currency\":\"waluta ").append(i).append("\",\"code\":\"C").append(String.format("%05d", i))
+                    .append("\",\"mid\":").append(1 + (i % 500) / 100.0).append('}');
+        }
+        json.append("]}]");
+        stooqBody = csv.toString().getBytes(StandardCharsets.UTF_8);
+        nbpBody = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, Double> stooqChunk() {
+        return stooq.parseChunk(stooqBody, stooqBody.length, requested);
+    }
+
+    @Benchmark
+    public Map<String, Double> nbpTable() throws IOException {
+        return nbp.parseTable(nbpBody, nbpBody.length);
+    }
+}
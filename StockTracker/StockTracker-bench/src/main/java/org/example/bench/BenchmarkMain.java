@@ -0,0 +1,15 @@
+package org.example.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Punkt wejścia benchmarks.jar: jak org.openjdk.jmh.Main, ale domyślnie zapisuje wyniki w JSON
+// (jmh-result.json), żeby dało się porównać dwa buildy. Własne -rf/-rff mają pierwszeństwo.
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        List<String> all = new ArrayList<>(List.of(args));
+        if (!all.contains("-rf")) all.addAll(0, List.of("-rf", "json"));
+        if (!all.contains("-rff")) all.addAll(0, List.of("-rff", "jmh-result.json"));
+        org.openjdk.jmh.Main.main(all.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.bench;
+
+import javafx.scene.chart.XYChart;
+import org.example.PriceHistoryStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Dopisanie punktu wykresu dla każdego symbolu (jedna klatka ticków):
+// - legacy: dawne updateLiveChart - XYChart.Data z etykietą czasu jako String, okno 30 punktów przez remove(0),
+// - history: PriceHistoryStore.add do bufora cyklicznego (tyle robi teraz tick; rysowanie jest osobno,
+//   patrz ChartDecimationBenchmark).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChartBenchmark {
+    @Param({"20", "1000", "10000"})
+    public int symbols;
+
+    private XYChart.Series<String, Number>[] series;
+    private PriceHistoryStore store;
+    private long time = 1_700_000_000_000L;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        series = new XYChart.Series[symbols];
+        for (int i = 0; i < symbols; i++) series[i] = new XYChart.Series<>();
+        store = new PriceHistoryStore(3600);
+    }
+
+    @Benchmark
+    public void legacy() {
+        String label = new SimpleDateFormat("HH:mm:ss").format(new Date(time += 1000));
+        for (int i = 0; i < symbols; i++) {
+            var data = series[i].getData();
+            data.add(new XYChart.Data<>(label, 100 + i % 50));
+            if (data.size() > 30) data.remove(0);
+        }
+    }
+
+    @Benchmark
+    public void history() {
+        long t = time += 1000;
+        for (int i = 0; i < symbols; i++) store.add(i, t, 100 + i % 50);
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.example.bench;
+
+import org.example.PriceHistory;
+import org.example.TimeSeriesChart;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Przerysowanie TimeSeriesChart bez Canvas: agregacja M4 całej historii do 1200 kolumn pikseli
+// i zbudowanie łamanej. Przy 60 fps budżet klatki to 16 ms.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChartDecimationBenchmark {
+    private static final int COLUMNS = 1200;
+
+    @Param({"3600", "100000", "1000000"})
+    public int points;
+
+    private PriceHistory history;
+    private final TimeSeriesChart.Columns columns = new TimeSeriesChart.Columns();
+    private final double[] xs = new double[4 * COLUMNS];
+    private final double[] ys = new double[4 * COLUMNS];
+
+    @Setup
+    public void setup() {
+        history = new PriceHistory(points);
+        double price = 100;
+        for (int i = 0; i < points; i++) {
+            price += Math.sin(i * 0.01) + ((i * 7919) % 13 - 6) * 0.05;
+            history.add(1_700_000_000_000L + i * 1000L, price);
+        }
+    }
+
+    @Benchmark
+    public int decimate() {
+        columns.aggregate(history, history.time(0), history.time(history.size() - 1), COLUMNS);
+        return columns.polyline(xs, ys, 10, 500, 90, 1.0);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.bench;
+
+import org.example.MarketEngine;
+import org.example.MarketSimulator;
+import org.example.Quote;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cały rdzeń bez JavaFX: krok symulatora dla wszystkich instrumentów (publikacja z alertami i zleceniami),
+// potem drain - portfel, historia, wskaźniki i świece dla każdego zmienionego symbolu.
+// Silnik bez StockService i dziennika, więc bez sieci i bez plików.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketEngineBenchmark {
+    @Param({"20", "1000", "10000"})
+    public int symbols;
+
+    private MarketEngine engine;
+    private MarketSimulator simulator;
+    private MarketSimulator.TickSink sink;
+    private final MarketEngine.Listener listener = new MarketEngine.Listener() { };
+
+    @Setup
+    public void setup() {
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < symbols; i++) quotes.add(new Quote(String.format("ENGINE%05d", i), 50 + i % 100));
+        engine = new MarketEngine(null, 0, Runnable::run);
+        engine.load(quotes, List.of());
+        simulator = new MarketSimulator(42);
+        for (int i = 0; i < symbols; i++) {
+            int id = engine.ticks().indexOf(quotes.get(i).symbol());
+            simulator.add(id, quotes.get(i).price(), MarketSimulator.Params.gbm(0, 0.003));
+        }
+        sink = engine.ticks()::publish;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        engine.close();
+    }
+
+    @Benchmark
+    public int stepAndDrain() {
+        simulator.step(sink);
+        return engine.drain(listener);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.bench;
+
+import org.example.MarketSimulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Koszt jednego kroku symulatora (wszystkie instrumenty naraz) dla różnych modeli i liczby symboli.
+// Przy 100 Hz budżet kroku to 10 ms.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketSimulatorBenchmark {
+    @Param({"20", "1000", "10000"})
+    public int symbols;
+
+    @Param({"GBM", "JUMP_DIFFUSION", "MEAN_REVERSION"})
+    public MarketSimulator.Model model;
+
+    private MarketSimulator simulator;
+
+    @Setup
+    public void setup() {
+        simulator = new MarketSimulator(42);
+        simulator.setRate(100);
+        MarketSimulator.Params params = switch (model) {
+            case GBM -> MarketSimulator.Params.gbm(0, 0.003);
+            case JUMP_DIFFUSION -> MarketSimulator.Params.jumpDiffusion(0, 0.003, 0.01, -0.01, 0.03);
+            case MEAN_REVERSION -> MarketSimulator.Params.meanReversion(0.01, 0, 0.003);
+        };
+        for (int i = 0; i < symbols; i++) simulator.add(i, 50 + i % 100, params);
+    }
+
+    @Benchmark
+    public void step(Blackhole bh) {
+        simulator.step((id, price, change) -> bh.consume(price));
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.bench;
+
+import org.example.MatchingEngine;
+import org.example.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Silnik zleceń z dużą księgą oczekujących zleceń (limity i stopy po obu stronach, z dala od kursu).
+// tickNoMatch - koszt ticku, który niczego nie realizuje (najczęstszy przypadek);
+// placeAndFill - pełny cykl: złożenie zlecenia, tick, który je realizuje, rozliczenie. Uruchom z -prof gc.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchingEngineBenchmark {
+    private static final int SYMBOL = 0;
+
+    @Param({"10000", "100000"})
+    public int restingOrders;
+
+    private MatchingEngine engine;
+    private final MatchingEngine.FillConsumer sink = o -> { };
+    private int tick;
+
+    @Setup
+    public void setup() {
+        engine = new MatchingEngine();
+        Random random = new Random(42);
+        for (int i = 0; i < restingOrders; i++) {
+            // ceny w groszach, kurs około 100 PLN
+            long offset = 1000 + random.nextInt(5000);
+            switch (i % 4) {
+                case 0 -> engine.place(SYMBOL, MatchingEngine.Side.BUY, MatchingEngine.Type.LIMIT, Money.UNITS, 10000 - offset, 0);
+                case 1 -> engine.place(SYMBOL, MatchingEngine.Side.SELL, MatchingEngine.Type.LIMIT, Money.UNITS, 10000 + offset, 0);
+                case 2 -> engine.place(SYMBOL, MatchingEngine.Side.BUY, MatchingEngine.Type.STOP, Money.UNITS, 0, 10000 + offset);
+                default -> engine.place(SYMBOL, MatchingEngine.Side.SELL, MatchingEngine.Type.STOP_LIMIT, Money.UNITS, 10000 - offset - 100, 10000 - offset);
+            }
+        }
+    }
+
+    @Benchmark
+    public void tickNoMatch() {
+        engine.onPrice(SYMBOL, 99 + (tick++ & 7) * 0.25);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int placeAndFill() {
+        engine.place(SYMBOL, MatchingEngine.Side.BUY, MatchingEngine.Type.LIMIT, Money.UNITS, 10050, 0);
+        engine.onPrice(SYMBOL, 100);
+        return engine.drainFills(sink);
+    }
+}
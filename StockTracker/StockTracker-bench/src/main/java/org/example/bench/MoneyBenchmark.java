@@ -0,0 +1,94 @@
+package org.example.bench;
+
+import org.example.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Ścieżka transakcji: dawny rachunek na double (z epsilonem przy sprzedaży) kontra Money na long.
+// Każda operacja to paczka TRADES kupna/sprzedaży po losowych cenach z przygotowanych tablic.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(MoneyBenchmark.TRADES)
+public class MoneyBenchmark {
+    static final int TRADES = 1024;
+
+    private double[] prices;
+    private double[] quantities;
+    private long[] pricesGrosz;
+    private long[] quantityUnits;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(7);
+        prices = new double[TRADES];
+        quantities = new double[TRADES];
+        pricesGrosz = new long[TRADES];
+        quantityUnits = new long[TRADES];
+        for (int i = 0; i < TRADES; i++) {
+            pricesGrosz[i] = 1000 + random.nextLong(500_000);
+            quantityUnits[i] = (1 + random.nextLong(10_000)) * 10_000;
+            prices[i] = pricesGrosz[i] / 100.0;
+            quantities[i] = quantityUnits[i] / 1e8;
+        }
+    }
+
+    @Benchmark
+    public double tradesDouble() {
+        double cash = 1_000_000.0;
+        double position = 0;
+        for (int i = 0; i < TRADES; i++) {
+            if ((i & 1) == 0) {
+                double cost = prices[i] * quantities[i];
+                if (cash >= cost) {
+                    cash -= cost;
+                    position += quantities[i];
+                }
+            } else if (position >= quantities[i] - 0.0001) {
+                cash += prices[i] * quantities[i];
+                position -= quantities[i];
+                if (position < 0.0001) position = 0;
+            }
+        }
+        return cash + position;
+    }
+
+    @Benchmark
+    public long tradesFixedPoint() {
+        long cash = 1_000_000 * Money.GROSZ;
+        long position = 0;
+        for (int i = 0; i < TRADES; i++) {
+            if ((i & 1) == 0) {
+                long cost = Money.value(quantityUnits[i], pricesGrosz[i]);
+                if (cash >= cost) {
+                    cash -= cost;
+                    position += quantityUnits[i];
+                }
+            } else if (position >= quantityUnits[i]) {
+                cash += Money.value(quantityUnits[i], pricesGrosz[i]);
+                position -= quantityUnits[i];
+            }
+        }
+        return cash + position;
+    }
+
+    // samo wyliczenie wartości pozycji - tu widać koszt dzielenia przez skalę
+    @Benchmark
+    public double valueDouble() {
+        double sum = 0;
+        for (int i = 0; i < TRADES; i++) sum += quantities[i] * prices[i];
+        return sum;
+    }
+
+    @Benchmark
+    public long valueFixedPoint() {
+        long sum = 0;
+        for (int i = 0; i < TRADES; i++) sum += Money.value(quantityUnits[i], pricesGrosz[i]);
+        return sum;
+    }
+}
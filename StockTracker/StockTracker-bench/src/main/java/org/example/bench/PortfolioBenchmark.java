@@ -0,0 +1,76 @@
+package org.example.bench;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.example.IdIndex;
+import org.example.Money;
+import org.example.Portfolio;
+import org.example.PortfolioItem;
+import org.example.Stock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Portfel z n pozycjami:
+// - wyszukanie pozycji: dawne findPortfolioItem (strumień po liście, porównanie symboli) kontra IdIndex,
+// - wartość portfela przy ticku: dawne updateFinanceLabels (suma po wszystkich pozycjach w double)
+//   kontra Portfolio z MarketEngine (zmiana wartości jednej pozycji, suma w groszach, bez JavaFX).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PortfolioBenchmark {
+    @Param({"20", "1000", "10000"})
+    public int symbols;
+
+    private ObservableList<PortfolioItem> items;
+    private IdIndex<PortfolioItem> index;
+    private Portfolio portfolio;
+    private Stock[] stocks;
+    private int next;
+
+    @Setup
+    public void setup() {
+        items = FXCollections.observableArrayList();
+        index = new IdIndex<>(items, p -> p.getStock().getId());
+        portfolio = new Portfolio(1_000_000_000L * Money.GROSZ);
+        stocks = new Stock[symbols];
+        for (int i = 0; i < symbols; i++) {
+            stocks[i] = new Stock(String.format("BENCH%05d", i), 50 + i % 100);
+            items.add(new PortfolioItem(stocks[i], (1 + i % 10) * Money.UNITS));
+            portfolio.onPrice(stocks[i].getId(), stocks[i].getPriceGrosz());
+            portfolio.buy(stocks[i].getId(), (1 + i % 10) * Money.UNITS, stocks[i].getPriceGrosz());
+        }
+    }
+
+    private Stock nextStock() {
+        Stock s = stocks[next];
+        next = next + 1 == symbols ? 0 : next + 1;
+        return s;
+    }
+
+    @Benchmark
+    public PortfolioItem findLegacy() {
+        String symbol = nextStock().getSymbol();
+        return items.stream().filter(p -> p.getStock().getSymbol().equals(symbol)).findFirst().orElse(null);
+    }
+
+    @Benchmark
+    public PortfolioItem findIndexed() {
+        return index.get(nextStock().getId());
+    }
+
+    @Benchmark
+    public double valueLegacy() {
+        return items.stream().mapToDouble(p -> Money.quantityToDouble(p.getQuantity()) * p.getStock().getPrice()).sum();
+    }
+
+    @Benchmark
+    public long valueIncremental() {
+        Stock s = nextStock();
+        portfolio.onPrice(s.getId(), s.getPriceGrosz() + (next & 1));
+        return portfolio.total();
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.bench;
+
+import org.example.FastQuoteParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Porównanie parsowania odpowiedzi: dawny kod na Stringach (indexOf/substring/split)
+// kontra FastQuoteParser działający na bajtach. Uruchom z -prof gc, żeby zobaczyć alokacje.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuoteParsingBenchmark {
+    private static final byte[] MID = FastQuoteParser.jsonKey("mid");
+    private static final byte[] PRICE = FastQuoteParser.jsonKey("price");
+
+    private byte[] nbpBytes;
+    private byte[] binanceBytes;
+    private byte[] stooqBytes;
+
+    @Setup
+    public void setup() {
+        nbpBytes = ("{\"table\":\"A\",\"currency\":\"dolar amerykański\",\"code\":\"USD\",\"rates\":"
+                + "[{\"no\":\"004/A/NBP/2024\",\"effectiveDate\":\"2024-01-05\",\"mid\":3.9812}]}")
+                .getBytes(StandardCharsets.UTF_8);
+        binanceBytes = "{\"symbol\":\"BTCUSDT\",\"price\":\"65012.34000000\"}".getBytes(StandardCharsets.UTF_8);
+        StringBuilder csv = new StringBuilder("Symbol,Data,Czas,Otwarcie,Najwyzszy,Najnizszy,Zamkniecie\r\n");
+        String[] symbols = {"ZAB", "CCC", "PKO", "PEO", "PKN", "KGH", "ALE", "CDR", "DNP", "PZU",
+                "LPP", "PCO", "SPL", "MBK", "ALR", "KRU", "KTY", "BDX", "PGE", "OPL"};
+        for (int i = 0; i < symbols.length; i++) {
+            csv.append(symbols[i]).append(",2024-01-05,17:00:00,")
+                    .append(100 + i).append(".1,").append(101 + i).append(".9,")
+                    .append(99 + i).append(".5,").append(100 + i).append(".45\r\n");
+        }
+        stooqBytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // --- dawny kod (fetchNbpRate / fetchBinancePrice / fetchStooqPrice) ---
+
+    @Benchmark
+    public double nbpLegacy() {
+        String json = new String(nbpBytes, StandardCharsets.UTF_8);
+        String key = "\"mid\":";
+        int start = json.indexOf(key) + key.length();
+        int end = json.indexOf("}", start);
+        if (end == -1) end = json.indexOf(",", start);
+        return Double.parseDouble(json.substring(start, end));
+    }
+
+    @Benchmark
+    public double binanceLegacy() {
+        String json = new String(binanceBytes, StandardCharsets.UTF_8);
+        String search = "\"price\":\"";
+        int start = json.indexOf(search) + search.length();
+        int end = json.indexOf("\"", start);
+        return Double.parseDouble(json.substring(start, end));
+    }
+
+    @Benchmark
+    public void stooqLegacy(Blackhole bh) {
+        String[] lines = new String(stooqBytes, StandardCharsets.UTF_8).split("\n");
+        for (int i = 1; i < lines.length; i++) {
+            String[] cols = lines[i].split(",");
+            if (cols.length >= 7) bh.consume(Double.parseDouble(cols[6]));
+        }
+    }
+
+    // --- FastQuoteParser ---
+
+    @Benchmark
+    public double nbpFast() {
+        return FastQuoteParser.jsonNumber(nbpBytes, nbpBytes.length, MID);
+    }
+
+    @Benchmark
+    public double binanceFast() {
+        return FastQuoteParser.jsonNumber(binanceBytes, binanceBytes.length, PRICE);
+    }
+
+    @Benchmark
+    public void stooqFast(Blackhole bh) {
+        FastQuoteParser.forEachCsvRow(stooqBytes, stooqBytes.length, 6, (buf, from, to, value) -> bh.consume(value));
+    }
+}
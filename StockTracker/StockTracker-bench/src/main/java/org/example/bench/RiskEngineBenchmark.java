@@ -0,0 +1,56 @@
+package org.example.bench;
+
+import org.example.RiskEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Skalowanie Monte Carlo VaR/ES z liczbą wątków (osobny ForkJoinPool na parametr threads).
+// Wynik dla danego ziarna jest ten sam przy każdej liczbie wątków - różni się tylko czas.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RiskEngineBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"5", "20"})
+    public int positions;
+
+    @Param({"200000"})
+    public int paths;
+
+    private ForkJoinPool pool;
+    private RiskEngine engine;
+    private RiskEngine.Model model;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool(threads);
+        engine = new RiskEngine(pool);
+        String[] symbols = new String[positions];
+        double[] values = new double[positions];
+        double[] vols = new double[positions];
+        for (int i = 0; i < positions; i++) {
+            symbols[i] = "S" + i;
+            values[i] = 1000 + 250 * i;
+            vols[i] = 0.015 + 0.001 * i;
+        }
+        model = new RiskEngine.Model(symbols, values, new double[positions], vols,
+                RiskEngine.constantCorrelation(positions, 0.4));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public RiskEngine.Result varEs() {
+        return engine.run(model, paths, 1, 0.99, 42);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.bench;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.example.IdIndex;
+import org.example.Stock;
+import org.example.SymbolRegistry;
+import org.example.TickBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Jedna "klatka" ticków dla całego uniwersum: każdy symbol dostaje nową cenę, potem trafia do obiektu Stock.
+// legacy: dawne updateStockInList - szukanie symbolu w liście po nazwie dla każdego ticku (O(n^2) na klatkę).
+// buffer: TickBuffer.publish z wątku producenta + drain na wątku FX z IdIndex (O(n) na klatkę).
+// Właściwości JavaFX (javafx-base) działają bez uruchomionego toolkitu, więc benchmark jest headless.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickPipelineBenchmark {
+    @Param({"20", "1000", "10000"})
+    public int symbols;
+
+    private ObservableList<Stock> stocks;
+    private String[] names;
+    private int[] ids;
+    private double[] prices;
+    private IdIndex<Stock> index;
+    private TickBuffer ticks;
+    private final TickBuffer.TickConsumer apply = this::apply;
+    private int round;
+
+    @Setup
+    public void setup() {
+        stocks = FXCollections.observableArrayList();
+        names = new String[symbols];
+        ids = new int[symbols];
+        prices = new double[symbols];
+        for (int i = 0; i < symbols; i++) {
+            names[i] = String.format("BENCH%05d", i);
+            Stock s = new Stock(names[i], 100.0);
+            stocks.add(s);
+            ids[i] = s.getId();
+        }
+        index = new IdIndex<>(stocks, Stock::getId);
+        ticks = new TickBuffer(SymbolRegistry.DEFAULT, SymbolRegistry.DEFAULT.size());
+    }
+
+    @Benchmark
+    public void legacyListScan() {
+        double base = 100 + (round++ & 7);
+        for (int i = 0; i < symbols; i++) updateStockInList(names[i], base + i * 0.01);
+    }
+
+    @Benchmark
+    public int buffer() {
+        double base = 100 + (round++ & 7);
+        for (int i = 0; i < symbols; i++) ticks.publish(ids[i], base + i * 0.01, 0.1);
+        return ticks.drain(apply);
+    }
+
+    private void apply(int id, double price, double change) {
+        Stock s = index.get(id);
+        s.setPrice(price);
+        s.setChange(change);
+    }
+
+    private void updateStockInList(String symbol, double newPrice) {
+        for (Stock s : stocks) {
+            if (s.getSymbol().equals(symbol)) {
+                double oldPrice = s.getPrice();
+                if (oldPrice > 0 && Math.abs(newPrice - oldPrice) > 0.0001) {
+                    double change = ((newPrice - oldPrice) / oldPrice) * 100.0;
+                    s.setChange(Math.round(change * 100.0) / 100.0);
+                }
+                s.setPrice(newPrice);
+                break;
+            }
+        }
+    }
+}
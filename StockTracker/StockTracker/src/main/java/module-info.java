@@ -7,6 +7,12 @@ module org.example {
     // TO JEST KLUCZOWE do pobierania danych z Internetu (NBP/Binance)
     requires java.net.http;
 
+    // Lokalna atrapa API (StubQuoteServer) do testów bez internetu
+    requires jdk.httpserver;
+
+    // Własne zdarzenia JFR (MetricsEvents)
+    requires jdk.jfr;
+
     // Pozwala JavaFX wchodzić do twojego kodu
     opens org.example to javafx.fxml;
     exports org.example;
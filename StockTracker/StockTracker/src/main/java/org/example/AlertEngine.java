@@ -0,0 +1,281 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Alerty cenowe: dowolnie wiele na symbol. Progi każdego symbolu trzymamy w dwóch posortowanych
+// tablicach double (ThresholdBook) - "wzrost ponad" i "spadek poniżej". Tick zdejmuje z końca tablicy
+// tylko te progi, które cena faktycznie przekroczyła: O(1 + k) zamiast sprawdzania wszystkich alertów.
+//
+// onPrice() jest wołane przez wątki produkujące ceny (symulacja, monitor, replay), nie przez FX.
+// Odpalone alerty trafiają do kolejki, którą UI zbiera raz na klatkę i pokazuje jednym powiadomieniem.
+//
+// Aktywne alerty symbolu są też na jego liście numerów, więc activeIds/describe/removeAll nie przeglądają
+// wszystkich alertów. Numer usuniętego albo odpalonego alertu wraca do puli dopiero po zdjęciu z progów -
+// wtedy tablice rosną z liczbą jednocześnie aktywnych alertów, nie wszystkich kiedykolwiek dodanych.
+public class AlertEngine {
+    public enum Type { ABOVE, BELOW, PERCENT_MOVE, CROSSING }
+
+    public record Fired(int alertId, int symbolId, Type type, double level, double price) { }
+
+    private record Alert(int id, int symbolId, Type type, double value, double reference) { }
+
+    private static final class SymbolAlerts {
+        // progi pod blokadą tego obiektu
+        final ThresholdBook above = new ThresholdBook();
+        final ThresholdBook below = new ThresholdBook();
+        // aktywne alerty w kolejności dodania - pod blokadą AlertEngine
+        int[] ids = new int[4];
+        int count;
+    }
+
+    // Kopiowane przy dodaniu nowego symbolu - odczyt w onPrice() bez blokady
+    private volatile SymbolAlerts[] bySymbol = new SymbolAlerts[0];
+    // numer alertu -> alert; pola poniżej pod blokadą this
+    private final List<Alert> alerts = new ArrayList<>();
+    private volatile boolean[] active = new boolean[8];
+    private int[] freeIds = new int[8];
+    private int freeCount;
+    private final Queue<Fired> fired = new ConcurrentLinkedQueue<>();
+
+    // value: poziom ceny (ABOVE, BELOW, CROSSING) albo procent (PERCENT_MOVE)
+    public int add(int symbolId, Type type, double value, double currentPrice) {
+        SymbolAlerts s = symbolAlerts(symbolId);
+        int id;
+        // blokady w tej samej kolejności co onPrice -> fire (symbol, potem this); remove() nowego numeru
+        // zaczeka, aż progi będą wstawione
+        synchronized (s) {
+            synchronized (this) {
+                if (freeCount > 0) {
+                    id = freeIds[--freeCount];
+                    alerts.set(id, new Alert(id, symbolId, type, value, currentPrice));
+                } else {
+                    id = alerts.size();
+                    alerts.add(new Alert(id, symbolId, type, value, currentPrice));
+                    if (id == active.length) active = Arrays.copyOf(active, id * 2);
+                }
+                active[id] = true;
+                if (s.count == s.ids.length) s.ids = Arrays.copyOf(s.ids, s.count * 2);
+                s.ids[s.count++] = id;
+            }
+            switch (type) {
+                case ABOVE -> s.above.insert(value, id);
+                case BELOW -> s.below.insert(value, id);
+                case PERCENT_MOVE -> {
+                    s.above.insert(currentPrice * (1 + value / 100.0), id);
+                    s.below.insert(currentPrice * (1 - value / 100.0), id);
+                }
+                case CROSSING -> {
+                    if (value > currentPrice) s.above.insert(value, id);
+                    else s.below.insert(value, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    public void remove(int alertId) {
+        Alert a;
+        synchronized (this) {
+            if (alertId < 0 || alertId >= alerts.size() || !active[alertId]) return;
+            a = alerts.get(alertId);
+            deactivate(a);
+        }
+        SymbolAlerts s = bySymbol[a.symbolId()];
+        synchronized (s) {
+            s.above.remove(alertId);
+            s.below.remove(alertId);
+        }
+        release(alertId);
+    }
+
+    // O(alerty symbolu), nie O(wszystkie alerty)
+    public void removeAll(int symbolId) {
+        for (int id : activeIds(symbolId)) remove(id);
+    }
+
+    // Gorąca ścieżka - wołana dla każdego ticku każdego symbolu.
+    public void onPrice(int symbolId, double price) {
+        SymbolAlerts[] all = bySymbol;
+        if (symbolId >= all.length) return;
+        SymbolAlerts s = all[symbolId];
+        if (s == null) return;
+        synchronized (s) {
+            if (s.above.lowest() < price) s.above.popBelow(price, id -> fire(s, id, price));
+            if (s.below.highest() > price) s.below.popAbove(price, id -> fire(s, id, price));
+        }
+    }
+
+    public boolean hasFired() { return !fired.isEmpty(); }
+
+    public int drainFired(Consumer<Fired> consumer) {
+        int n = 0;
+        Fired f;
+        while ((f = fired.poll()) != null) {
+            consumer.accept(f);
+            n++;
+        }
+        return n;
+    }
+
+    public synchronized List<Integer> activeIds(int symbolId) {
+        SymbolAlerts s = existing(symbolId);
+        List<Integer> ids = new ArrayList<>();
+        if (s != null) for (int i = 0; i < s.count; i++) ids.add(s.ids[i]);
+        return ids;
+    }
+
+    public synchronized List<String> describe(int symbolId) {
+        SymbolAlerts s = existing(symbolId);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; s != null && i < s.count; i++) {
+            Alert a = alerts.get(s.ids[i]);
+            lines.add(switch (a.type()) {
+                case ABOVE -> "Wzrost > " + a.value();
+                case BELOW -> "Spadek < " + a.value();
+                case PERCENT_MOVE -> String.format(Locale.ROOT, "Ruch ±%.2f%% od %.2f", a.value(), a.reference());
+                case CROSSING -> "Przecięcie " + a.value();
+            });
+        }
+        return lines;
+    }
+
+    public static String message(Fired f, String symbol) {
+        return switch (f.type()) {
+            case ABOVE -> "SUKCES! " + symbol + " > " + f.level();
+            case BELOW -> "ALERT! " + symbol + " < " + f.level();
+            case PERCENT_MOVE -> String.format(Locale.ROOT, "RUCH! %s o %.2f%% (kurs %.2f)", symbol, f.level(), f.price());
+            case CROSSING -> String.format(Locale.ROOT, "PRZECIĘCIE! %s przeszedł przez %s (kurs %.2f)", symbol, f.level(), f.price());
+        };
+    }
+
+    // wołane pod blokadą symbolu
+    private void fire(SymbolAlerts s, int alertId, double price) {
+        boolean[] flags = active;
+        if (alertId >= flags.length || !flags[alertId]) return;
+        Alert a;
+        synchronized (this) {
+            // remove() mógł go właśnie wyłączyć - wtedy to on zwolni numer
+            if (!active[alertId]) return;
+            a = alerts.get(alertId);
+            if (a.type() != Type.CROSSING) deactivate(a);
+        }
+        switch (a.type()) {
+            // druga połowa alertu procentowego jest już nieaktualna
+            case PERCENT_MOVE -> {
+                s.above.remove(alertId);
+                s.below.remove(alertId);
+            }
+            // przecięcie działa w obie strony - po przejściu czeka na powrót przez ten sam poziom
+            case CROSSING -> {
+                if (price > a.value()) s.below.insert(a.value(), alertId);
+                else s.above.insert(a.value(), alertId);
+            }
+            default -> { }
+        }
+        // próg jest już zdjęty z obu stron - numer może dostać nowy alert
+        if (a.type() != Type.CROSSING) release(alertId);
+        fired.add(new Fired(alertId, a.symbolId(), a.type(), a.value(), price));
+    }
+
+    // pod blokadą this
+    private void deactivate(Alert a) {
+        active[a.id()] = false;
+        SymbolAlerts s = bySymbol[a.symbolId()];
+        for (int i = 0; i < s.count; i++) {
+            if (s.ids[i] != a.id()) continue;
+            System.arraycopy(s.ids, i + 1, s.ids, i, s.count - i - 1);
+            s.count--;
+            return;
+        }
+    }
+
+    private synchronized void release(int alertId) {
+        if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = alertId;
+    }
+
+    private SymbolAlerts existing(int symbolId) {
+        SymbolAlerts[] all = bySymbol;
+        return symbolId >= 0 && symbolId < all.length ? all[symbolId] : null;
+    }
+
+    private synchronized SymbolAlerts symbolAlerts(int symbolId) {
+        SymbolAlerts[] all = bySymbol;
+        if (symbolId < all.length && all[symbolId] != null) return all[symbolId];
+        SymbolAlerts[] copy = Arrays.copyOf(all, Math.max(all.length, symbolId + 1));
+        copy[symbolId] = new SymbolAlerts();
+        bySymbol = copy;
+        return copy[symbolId];
+    }
+
+    // Posortowane rosnąco progi z numerami alertów; aktywny zakres to [head, tail).
+    // Zdejmowanie z obu końców jest O(1) na alert, wstawianie (rzadkie, z UI) - O(n).
+    static final class ThresholdBook {
+        interface IdSink { void accept(int alertId); }
+
+        private double[] levels = new double[8];
+        private int[] ids = new int[8];
+        private int head = 0;
+        private int tail = 0;
+
+        double lowest() { return head < tail ? levels[head] : Double.POSITIVE_INFINITY; }
+
+        double highest() { return head < tail ? levels[tail - 1] : Double.NEGATIVE_INFINITY; }
+
+        int size() { return tail - head; }
+
+        void insert(double level, int alertId) {
+            if (tail == levels.length) {
+                int n = tail - head;
+                if (head > 0 && n < levels.length / 2) {
+                    System.arraycopy(levels, head, levels, 0, n);
+                    System.arraycopy(ids, head, ids, 0, n);
+                } else {
+                    levels = Arrays.copyOfRange(levels, head, head + Math.max(levels.length * 2, 8));
+                    ids = Arrays.copyOfRange(ids, head, head + levels.length);
+                }
+                head = 0;
+                tail = n;
+            }
+            int pos = Arrays.binarySearch(levels, head, tail, level);
+            if (pos < 0) pos = -pos - 1;
+            System.arraycopy(levels, pos, levels, pos + 1, tail - pos);
+            System.arraycopy(ids, pos, ids, pos + 1, tail - pos);
+            levels[pos] = level;
+            ids[pos] = alertId;
+            tail++;
+        }
+
+        void remove(int alertId) {
+            for (int i = head; i < tail; i++) {
+                if (ids[i] != alertId) continue;
+                System.arraycopy(levels, i + 1, levels, i, tail - i - 1);
+                System.arraycopy(ids, i + 1, ids, i, tail - i - 1);
+                tail--;
+                return;
+            }
+        }
+
+        // progi niższe od ceny (alerty "wzrost ponad")
+        void popBelow(double price, IdSink sink) {
+            while (head < tail && levels[head] < price) {
+                int id = ids[head++];
+                sink.accept(id);
+            }
+        }
+
+        // progi wyższe od ceny (alerty "spadek poniżej")
+        void popAbove(double price, IdSink sink) {
+            while (tail > head && levels[tail - 1] > price) {
+                int id = ids[--tail];
+                sink.accept(id);
+            }
+        }
+    }
+}
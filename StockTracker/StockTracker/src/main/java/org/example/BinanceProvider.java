@@ -0,0 +1,30 @@
+package org.example;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cena w USD z Binance. Symbol to ticker kryptowaluty, np. "BTC" -> para BTCUSDT.
+public class BinanceProvider extends HttpQuoteProvider {
+    public static final String BASE_URL = "https://api.binance.com";
+    private static final byte[] PRICE = FastQuoteParser.jsonKey("price");
+
+    public BinanceProvider(HttpClient httpClient, String baseUrl, Duration timeout) {
+        super(httpClient, baseUrl, timeout);
+    }
+
+    @Override
+    public String name() { return "Binance"; }
+
+    @Override
+    public Map<String, Double> fetchQuotes(List<String> symbols) throws Exception {
+        Map<String, Double> prices = new HashMap<>();
+        for (String symbol : symbols) {
+            String url = baseUrl + "/api/v3/ticker/price?symbol=" + symbol + "USDT";
+            prices.put(symbol, get(url, body -> jsonNumber(body, PRICE)));
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+// Bufor na ciało odpowiedzi HTTP wielokrotnego użytku. Zamiast budować Stringa z całej
+// odpowiedzi przy każdym odpytaniu, kopiujemy ByteBuffery prosto do jednej tablicy byte[],
+// która rośnie tylko wtedy, gdy odpowiedź jest większa niż dotychczasowe.
+public final class ByteBody {
+    private byte[] data;
+    private int length;
+
+    public ByteBody(int capacity) {
+        data = new byte[capacity];
+    }
+
+    public byte[] array() { return data; }
+
+    public int length() { return length; }
+
+    void reset() { length = 0; }
+
+    void append(ByteBuffer buffer) {
+        int n = buffer.remaining();
+        if (length + n > data.length) {
+            byte[] bigger = new byte[Math.max(data.length * 2, length + n)];
+            System.arraycopy(data, 0, bigger, 0, length);
+            data = bigger;
+        }
+        buffer.get(data, length, n);
+        length += n;
+    }
+
+    public static HttpResponse.BodyHandler<ByteBody> into(ByteBody target) {
+        return info -> new Subscriber(target);
+    }
+
+    private static final class Subscriber implements HttpResponse.BodySubscriber<ByteBody> {
+        private final ByteBody target;
+        private final CompletableFuture<ByteBody> result = new CompletableFuture<>();
+
+        Subscriber(ByteBody target) {
+            this.target = target;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            target.reset();
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer b : buffers) target.append(b);
+        }
+
+        @Override
+        public void onError(Throwable throwable) { result.completeExceptionally(throwable); }
+
+        @Override
+        public void onComplete() { result.complete(target); }
+
+        @Override
+        public CompletionStage<ByteBody> getBody() { return result; }
+    }
+}
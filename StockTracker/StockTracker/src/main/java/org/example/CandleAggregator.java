@@ -0,0 +1,145 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Świece OHLC budowane przyrostowo z ticków, jednocześnie w kilku rozdzielczościach (1s, 1m, 5m, 1h).
+// Tick aktualizuje tylko bieżącą świecę każdej rozdzielczości - O(liczba rozdzielczości).
+// Dłuższe okresy trzymamy w grubszych świecach, więc dzień to ~300 świec 5m, a tydzień ~170 świec 1h,
+// zamiast setek tysięcy ticków.
+//
+// Świece symbolu w buforach cyklicznych tablic prymitywów, rosnących do pojemności rozdzielczości.
+// Okresy bez ticków nie tworzą pustych świec. Tylko wątek konsumenta ticków (MarketEngine.drain), jak PriceHistoryStore.
+public class CandleAggregator {
+    public enum Resolution {
+        S1("1s", 1_000L, Integer.getInteger("candles.seconds", 3600)),
+        M1("1m", 60_000L, 24 * 60),
+        M5("5m", 300_000L, 7 * 24 * 12),
+        H1("1h", 3_600_000L, 30 * 24);
+
+        public final String label;
+        public final long millis;
+        public final int capacity;
+
+        Resolution(String label, long millis, int capacity) {
+            this.label = label;
+            this.millis = millis;
+            this.capacity = capacity;
+        }
+
+        // Najdrobniejsza rozdzielczość, w której zakres mieści się w maxBars świecach
+        public static Resolution forRange(long rangeMillis, int maxBars) {
+            for (Resolution r : values()) {
+                if (rangeMillis / r.millis <= maxBars) return r;
+            }
+            return H1;
+        }
+    }
+
+    private static final int RESOLUTIONS = Resolution.values().length;
+
+    private Candles[][] bySymbol = new Candles[64][];
+
+    public void onTick(int id, long epochMillis, double price) {
+        if (id >= bySymbol.length) bySymbol = Arrays.copyOf(bySymbol, Math.max(bySymbol.length * 2, id + 1));
+        Candles[] all = bySymbol[id];
+        if (all == null) {
+            all = new Candles[RESOLUTIONS];
+            for (Resolution r : Resolution.values()) all[r.ordinal()] = new Candles(r);
+            bySymbol[id] = all;
+        }
+        for (Candles c : all) c.add(epochMillis, price);
+    }
+
+    // null, jeśli symbol nie miał jeszcze ticków
+    public Candles get(int id, Resolution resolution) {
+        Candles[] all = id >= 0 && id < bySymbol.length ? bySymbol[id] : null;
+        return all == null ? null : all[resolution.ordinal()];
+    }
+
+    public static final class Candles {
+        private final Resolution resolution;
+        private long[] starts;
+        private double[] opens;
+        private double[] highs;
+        private double[] lows;
+        private double[] closes;
+        private int head = 0;
+        private int size = 0;
+
+        Candles(Resolution resolution) {
+            this.resolution = resolution;
+            int initial = Math.min(64, resolution.capacity);
+            starts = new long[initial];
+            opens = new double[initial];
+            highs = new double[initial];
+            lows = new double[initial];
+            closes = new double[initial];
+        }
+
+        void add(long epochMillis, double price) {
+            long start = epochMillis - Math.floorMod(epochMillis, resolution.millis);
+            if (size > 0) {
+                int last = slot(size - 1);
+                // tick spóźniony (np. z innego źródła) dopisujemy do bieżącej świecy
+                if (start <= starts[last]) {
+                    if (price > highs[last]) highs[last] = price;
+                    if (price < lows[last]) lows[last] = price;
+                    closes[last] = price;
+                    return;
+                }
+            }
+            if (size == starts.length && starts.length < resolution.capacity) grow();
+            int slot;
+            if (size < starts.length) {
+                slot = slot(size);
+                size++;
+            } else {
+                // pełny bufor: nadpisujemy najstarszą świecę
+                slot = head;
+                head = (head + 1) % starts.length;
+            }
+            starts[slot] = start;
+            opens[slot] = price;
+            highs[slot] = price;
+            lows[slot] = price;
+            closes[slot] = price;
+        }
+
+        public Resolution resolution() { return resolution; }
+
+        public int size() { return size; }
+
+        // i = 0 najstarsza świeca, size() - 1 bieżąca
+        public long start(int i) { return starts[slot(i)]; }
+        public double open(int i) { return opens[slot(i)]; }
+        public double high(int i) { return highs[slot(i)]; }
+        public double low(int i) { return lows[slot(i)]; }
+        public double close(int i) { return closes[slot(i)]; }
+
+        // Indeks pierwszej świecy zaczynającej się nie wcześniej niż fromMillis (wyszukiwanie binarne)
+        public int firstFrom(long fromMillis) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) < fromMillis) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private int slot(int i) {
+            return (head + i) % starts.length;
+        }
+
+        // Rośnie tylko, dopóki bufor nie jest jeszcze cykliczny (head == 0)
+        private void grow() {
+            int capacity = Math.min(starts.length * 2, resolution.capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            opens = Arrays.copyOf(opens, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+// Wykres świecowy rysowany na Canvas - bez węzła sceny na świecę. Rysuje tylko świece z widocznego
+// zakresu (wyszukiwanie binarne po czasie), więc koszt zależy od liczby świec na ekranie, nie od historii.
+public class CandleChart extends Region {
+    private static final Color UP = Color.web("#2ea043");
+    private static final Color DOWN = Color.web("#d73a49");
+
+    private final Canvas canvas = new Canvas();
+    private CandleAggregator.Candles candles;
+    private String title = "";
+    private long rangeMillis = 3_600_000L;
+
+    public CandleChart() {
+        getChildren().add(canvas);
+    }
+
+    public void show(CandleAggregator.Candles candles, String title, long rangeMillis) {
+        this.candles = candles;
+        this.title = title;
+        this.rangeMillis = rangeMillis;
+        redraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        redraw();
+    }
+
+    // Zakres czasu kończy się na bieżącej świecy - wykres "płynie" razem z notowaniami
+    public void redraw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        g.clearRect(0, 0, w, h);
+        if (candles == null || candles.size() == 0) {
+            ChartAxes.title(g, title + " - brak danych");
+            return;
+        }
+
+        long barMillis = candles.resolution().millis;
+        long to = candles.start(candles.size() - 1) + barMillis;
+        long from = to - rangeMillis;
+        int first = candles.firstFrom(from);
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        for (int i = first; i < candles.size(); i++) {
+            lo = Math.min(lo, candles.low(i));
+            hi = Math.max(hi, candles.high(i));
+        }
+        double pad = Math.max((hi - lo) * 0.05, hi * 0.0005);
+        lo -= pad;
+        hi += pad;
+
+        double plotW = w - ChartAxes.LEFT - ChartAxes.RIGHT;
+        double plotH = h - ChartAxes.TOP - ChartAxes.BOTTOM;
+        if (plotW <= 0 || plotH <= 0) return;
+        double xScale = plotW / rangeMillis;
+        double yScale = plotH / (hi - lo);
+        double bottom = ChartAxes.TOP + plotH;
+
+        ChartAxes.priceAxis(g, lo, hi, plotW, plotH);
+        ChartAxes.timeAxis(g, from, to, plotW, plotH);
+        ChartAxes.title(g, title + "  (" + candles.resolution().label + ")");
+
+        double barW = Math.max(1, barMillis * xScale * 0.7);
+        for (int i = first; i < candles.size(); i++) {
+            double x = ChartAxes.LEFT + (candles.start(i) + barMillis / 2.0 - from) * xScale;
+            double open = candles.open(i);
+            double close = candles.close(i);
+            Color c = close >= open ? UP : DOWN;
+            g.setStroke(c);
+            g.setFill(c);
+            double yHigh = bottom - (candles.high(i) - lo) * yScale;
+            double yLow = bottom - (candles.low(i) - lo) * yScale;
+            g.strokeLine(x, yHigh, x, yLow);
+            double yOpen = bottom - (open - lo) * yScale;
+            double yClose = bottom - (close - lo) * yScale;
+            g.fillRect(x - barW / 2, Math.min(yOpen, yClose), barW, Math.max(1, Math.abs(yOpen - yClose)));
+        }
+    }
+}
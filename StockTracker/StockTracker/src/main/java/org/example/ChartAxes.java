@@ -0,0 +1,88 @@
+package org.example;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// Wspólne osie wykresów rysowanych na Canvas (TimeSeriesChart, CandleChart): "okrągłe" kroki podziałki
+// dla cen (1/2/5 * 10^k) i dla czasu (sekundy, minuty, godziny, dni).
+final class ChartAxes {
+    static final double LEFT = 10;
+    static final double RIGHT = 70;
+    static final double TOP = 24;
+    static final double BOTTOM = 22;
+
+    private static final Color LABEL = Color.GRAY;
+    private static final Color GRID = Color.gray(0.5, 0.3);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter MINUTES = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DAY_TIME = DateTimeFormatter.ofPattern("dd.MM HH:mm").withZone(ZoneId.systemDefault());
+    private static final long[] TIME_STEPS = {
+            1_000, 2_000, 5_000, 10_000, 15_000, 30_000,
+            60_000, 120_000, 300_000, 600_000, 900_000, 1_800_000,
+            3_600_000, 7_200_000, 10_800_000, 21_600_000, 43_200_000, 86_400_000
+    };
+
+    private ChartAxes() { }
+
+    static void title(GraphicsContext g, String text) {
+        g.setFill(LABEL);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.TOP);
+        g.fillText(text, LEFT, 4);
+    }
+
+    // Siatka i etykiety cen po prawej stronie obszaru wykresu
+    static void priceAxis(GraphicsContext g, double lo, double hi, double plotW, double plotH) {
+        double step = niceStep(hi - lo, 5);
+        int decimals = Math.max(0, Math.min(6, (int) -Math.floor(Math.log10(step))));
+        g.setStroke(GRID);
+        g.setLineWidth(1);
+        g.setFill(LABEL);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        for (double v = Math.ceil(lo / step) * step; v <= hi; v += step) {
+            double y = Math.round(TOP + plotH - (v - lo) / (hi - lo) * plotH) + 0.5;
+            g.strokeLine(LEFT, y, LEFT + plotW, y);
+            g.fillText(String.format("%." + decimals + "f", v), LEFT + plotW + 5, y);
+        }
+    }
+
+    // Etykiety czasu pod obszarem wykresu, w pełnych krokach (np. co 5 min o :00, :05, ...)
+    static void timeAxis(GraphicsContext g, long from, long to, double plotW, double plotH) {
+        long range = Math.max(1, to - from);
+        long step = TIME_STEPS[TIME_STEPS.length - 1];
+        for (long s : TIME_STEPS) {
+            if (range / s <= 6) {
+                step = s;
+                break;
+            }
+        }
+        DateTimeFormatter fmt = range > 86_400_000L ? DAY_TIME : step < 60_000 ? TIME : MINUTES;
+        long offset = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(to)).getTotalSeconds() * 1000L;
+        g.setStroke(GRID);
+        g.setFill(LABEL);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.TOP);
+        long first = Math.floorDiv(from + offset + step - 1, step) * step - offset;
+        for (long t = first; t <= to; t += step) {
+            double x = Math.round(LEFT + (double) (t - from) / range * plotW) + 0.5;
+            g.strokeLine(x, TOP, x, TOP + plotH);
+            g.fillText(fmt.format(Instant.ofEpochMilli(t)), x, TOP + plotH + 4);
+        }
+    }
+
+    // Najmniejszy krok 1/2/5 * 10^k, przy którym zakres mieści się w maxTicks podziałkach
+    static double niceStep(double range, int maxTicks) {
+        if (!(range > 0)) return 1;
+        double raw = range / maxTicks;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double r = raw / magnitude;
+        return (r <= 1 ? 1 : r <= 2 ? 2 : r <= 5 ? 5 : 10) * magnitude;
+    }
+}
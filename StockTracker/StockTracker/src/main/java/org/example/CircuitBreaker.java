@@ -0,0 +1,63 @@
+package org.example;
+
+// Bezpiecznik dla jednego providera. Po failureThreshold błędach z rzędu przechodzi w OPEN
+// i przez openMillis nie przepuszcza zapytań. Potem wpuszcza jedno zapytanie próbne (HALF_OPEN):
+// sukces zamyka bezpiecznik, błąd otwiera go ponownie. Próba przerwana bez wyniku (recordAbort)
+// wraca do OPEN bez nowego odliczania - następne zapytanie znów może być próbą.
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        probeInFlight = false;
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    // Zapytanie skończyło się bez wyniku (przerwanie wątku, Error) - nie jest błędem providera,
+    // ale musi zwolnić próbę, inaczej HALF_OPEN nie wpuściłby już żadnego zapytania
+    public synchronized void recordAbort() {
+        if (!probeInFlight) return;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN) state = State.OPEN;
+    }
+
+    public synchronized State getState() { return state; }
+}
@@ -0,0 +1,33 @@
+package org.example;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Zapasowe źródło ceny kryptowalut w USD.
+public class CoinCapProvider extends HttpQuoteProvider {
+    public static final String BASE_URL = "https://api.coincap.io";
+    private static final byte[] PRICE_USD = FastQuoteParser.jsonKey("priceUsd");
+
+    private static final Map<String, String> ASSET_IDS = Map.of("BTC", "bitcoin", "ETH", "ethereum");
+
+    public CoinCapProvider(HttpClient httpClient, String baseUrl, Duration timeout) {
+        super(httpClient, baseUrl, timeout);
+    }
+
+    @Override
+    public String name() { return "CoinCap"; }
+
+    @Override
+    public Map<String, Double> fetchQuotes(List<String> symbols) throws Exception {
+        Map<String, Double> prices = new HashMap<>();
+        for (String symbol : symbols) {
+            String assetId = ASSET_IDS.get(symbol);
+            if (assetId == null) continue;
+            prices.put(symbol, get(baseUrl + "/v2/assets/" + assetId, body -> jsonNumber(body, PRICE_USD)));
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,213 @@
+package org.example;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Ceny krypto strumieniem WebSocket (Binance, strumienie "<para>@trade") zamiast odpytywania REST co 5 s.
+// Jedno połączenie i jedna subskrypcja dla wszystkich par; każda transakcja idzie od razu do TradeSink
+// (na wątku klienta HTTP), więc opóźnienie to czas sieci, a nie czekanie na kolejne zapytanie.
+//
+// Połączeniem opiekuje się zadanie "crypto-stream" w TaskScheduler: po zerwaniu, nieudanym połączeniu albo
+// gdy przez -Dstream.stale.seconds (domyślnie 30) nie przyszła żadna wiadomość - nowe połączenie po odstępie
+// rosnącym wykładniczo (0.5 s, 1 s, 2 s ... do 30 s, z losowym rozrzutem) i ponowna subskrypcja wszystkich par.
+// Odstęp wraca do minimum dopiero po pierwszej transakcji, nie po samym połączeniu.
+public class CryptoStream {
+    public static final String BASE_URL = "wss://stream.binance.com:9443/ws";
+
+    public interface TradeSink {
+        // pair: indeks pary z konstruktora
+        void trade(int pair, double priceUsd);
+    }
+
+    private static final byte[] SYMBOL = FastQuoteParser.jsonKey("s");
+    private static final byte[] PRICE = FastQuoteParser.jsonKey("p");
+    private static final byte[] EVENT_TIME = FastQuoteParser.jsonKey("E");
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private static final Metrics.Counter MESSAGES = Metrics.DEFAULT.counter("stream.messages");
+    private static final Metrics.Counter RECONNECTS = Metrics.DEFAULT.counter("stream.reconnects");
+    // czas od zdarzenia na giełdzie (pole E) do odebrania - przy zegarach zsynchronizowanych przez NTP
+    private static final Metrics.Histogram LAG = Metrics.DEFAULT.histogram("stream.lag");
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    // pary wielkimi literami, np. BTCUSDT - tak jak w polu "s" wiadomości
+    private final String[] pairs;
+    private final TradeSink sink;
+    private final long staleMillis = Long.getLong("stream.stale.seconds", 30) * 1000;
+
+    private TaskScheduler.Task watchdog;
+    private volatile WebSocket socket;
+    private volatile long lastMessageMillis;
+    private boolean connecting;
+    private boolean stopped;
+    private int failures;
+    private long nextAttemptMillis;
+    private long connections;
+    private int requestId;
+
+    public CryptoStream(HttpClient httpClient, String url, List<String> pairs, TradeSink sink) {
+        this.httpClient = httpClient;
+        this.uri = URI.create(url);
+        this.pairs = pairs.stream().map(p -> p.toUpperCase(Locale.ROOT)).toArray(String[]::new);
+        this.sink = sink;
+    }
+
+    public synchronized void start(TaskScheduler scheduler) {
+        if (watchdog != null) return;
+        watchdog = scheduler.schedule("crypto-stream", TaskScheduler.Policy.FIXED_DELAY, 0, 250, TimeUnit.MILLISECONDS,
+                this::check);
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (watchdog != null) watchdog.cancel();
+        WebSocket ws = socket;
+        socket = null;
+        if (ws != null) ws.sendClose(WebSocket.NORMAL_CLOSURE, "").whenComplete((w, e) -> ws.abort());
+    }
+
+    // Połączony i w ostatnich stream.stale.seconds przyszła jakaś wiadomość
+    public boolean isLive() {
+        return socket != null && System.currentTimeMillis() - lastMessageMillis < staleMillis;
+    }
+
+    public synchronized long connections() { return connections; }
+
+    private synchronized void check() {
+        if (stopped || connecting) return;
+        long now = System.currentTimeMillis();
+        WebSocket ws = socket;
+        if (ws != null) {
+            if (now - lastMessageMillis < staleMillis) return;
+            // połączenie wisi bez danych - zrywamy i łączymy od nowa
+            socket = null;
+            ws.abort();
+            backOff(now);
+            return;
+        }
+        if (now < nextAttemptMillis) return;
+        connecting = true;
+        if (connections > 0 || failures > 0) RECONNECTS.increment();
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .buildAsync(uri, new Handler())
+                .whenComplete(this::connected);
+    }
+
+    private synchronized void connected(WebSocket ws, Throwable error) {
+        connecting = false;
+        if (error != null) {
+            backOff(System.currentTimeMillis());
+            return;
+        }
+        if (stopped) {
+            ws.abort();
+            return;
+        }
+        // serwer zamknął połączenie, zanim tu doszliśmy - onClose nie znał jeszcze tego gniazda
+        if (ws.isInputClosed()) {
+            backOff(System.currentTimeMillis());
+            return;
+        }
+        connections++;
+        socket = ws;
+        lastMessageMillis = System.currentTimeMillis();
+        ws.sendText(subscribeMessage(), true);
+    }
+
+    private synchronized void disconnected(WebSocket ws) {
+        if (socket != ws) return;
+        socket = null;
+        backOff(System.currentTimeMillis());
+    }
+
+    private void backOff(long now) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(failures, 16));
+        failures++;
+        // rozrzut, żeby wiele klientów po awarii serwera nie łączyło się w tej samej chwili
+        nextAttemptMillis = now + delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private synchronized void receiving() {
+        failures = 0;
+    }
+
+    private String subscribeMessage() {
+        StringBuilder json = new StringBuilder("{\"method\":\"SUBSCRIBE\",\"params\":[");
+        for (int i = 0; i < pairs.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(pairs[i].toLowerCase(Locale.ROOT)).append("@trade\"");
+        }
+        return json.append("],\"id\":").append(++requestId).append('}').toString();
+    }
+
+    // Jedna wiadomość: transakcja {"e":"trade","E":...,"s":"BTCUSDT","p":"65000.01",...} albo odpowiedź
+    // na SUBSCRIBE (bez ceny - pomijana)
+    private void onMessage(byte[] buf, int len) {
+        long now = System.currentTimeMillis();
+        lastMessageMillis = now;
+        MESSAGES.increment();
+        double price = FastQuoteParser.jsonNumber(buf, len, PRICE);
+        if (Double.isNaN(price) || price <= 0) return;
+        int pair = pairOf(buf, len);
+        if (pair < 0) return;
+        double eventTime = FastQuoteParser.jsonNumber(buf, len, EVENT_TIME);
+        if (eventTime > 0 && now >= eventTime) LAG.record((now - (long) eventTime) * 1_000_000L);
+        if (failures != 0) receiving();
+        sink.trade(pair, price);
+    }
+
+    private int pairOf(byte[] buf, int len) {
+        int pos = FastQuoteParser.indexOf(buf, 0, len, SYMBOL);
+        if (pos < 0) return -1;
+        int from = pos + SYMBOL.length;
+        while (from < len && (buf[from] == ' ' || buf[from] == '"')) from++;
+        int to = from;
+        while (to < len && buf[to] != '"') to++;
+        for (int i = 0; i < pairs.length; i++) {
+            if (FastQuoteParser.equalsIgnoreCase(buf, from, to, pairs[i])) return i;
+        }
+        return -1;
+    }
+
+    // Jeden Handler na połączenie. Klient HTTP woła go sekwencyjnie (request(1)), więc bufor bez blokad.
+    private final class Handler implements WebSocket.Listener {
+        private final StringBuilder text = new StringBuilder();
+        private byte[] buf = new byte[512];
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                int len = text.length();
+                if (len > buf.length) buf = new byte[Math.max(len, buf.length * 2)];
+                // JSON Binance jest w ASCII - znak na bajt, bez kodowania
+                for (int i = 0; i < len; i++) buf[i] = (byte) text.charAt(i);
+                text.setLength(0);
+                onMessage(buf, len);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            disconnected(ws);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            disconnected(ws);
+        }
+    }
+}
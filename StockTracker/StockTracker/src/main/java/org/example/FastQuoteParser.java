@@ -0,0 +1,155 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+
+// Parser cen działający bezpośrednio na bajtach odpowiedzi - bez Stringów, split() i substring().
+// Liczby do 15 cyfr znaczących są składane ręcznie (wynik identyczny z Double.parseDouble),
+// dłuższe idą wolniejszą ścieżką przez Double.parseDouble.
+public final class FastQuoteParser {
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    public interface CsvRowHandler {
+        void row(byte[] buf, int symbolStart, int symbolEnd, double value);
+    }
+
+    private FastQuoteParser() { }
+
+    // Wzorzec "pole": do wyszukiwania w JSON-ie, tworzony raz (pole static final).
+    public static byte[] jsonKey(String field) {
+        return ("\"" + field + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Liczba po kluczu, w cudzysłowie lub bez. NaN, jeśli klucza nie ma albo wartość nie jest liczbą.
+    public static double jsonNumber(byte[] buf, int len, byte[] key) {
+        return jsonNumber(buf, 0, len, key);
+    }
+
+    // To samo, ale szuka klucza dopiero od pozycji from (np. kolejne obiekty w tablicy).
+    public static double jsonNumber(byte[] buf, int from, int len, byte[] key) {
+        int pos = indexOf(buf, from, len, key);
+        if (pos < 0) return Double.NaN;
+        pos += key.length;
+        while (pos < len && (buf[pos] == ' ' || buf[pos] == '"')) pos++;
+        int end = pos;
+        while (end < len && isNumberChar(buf[end])) end++;
+        return parseDecimal(buf, pos, end);
+    }
+
+    // Dla każdego wiersza CSV z poprawną liczbą w kolumnie column woła handler z zakresem
+    // pierwszej kolumny (symbol). Nagłówek, ucięte wiersze i N/D są pomijane.
+    public static int forEachCsvRow(byte[] buf, int len, int column, CsvRowHandler handler) {
+        int rows = 0;
+        int lineStart = 0;
+        while (lineStart < len) {
+            int lineEnd = lineStart;
+            while (lineEnd < len && buf[lineEnd] != '\n') lineEnd++;
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buf[contentEnd - 1] == '\r') contentEnd--;
+
+            int col = 0;
+            int colStart = lineStart;
+            int symbolEnd = -1;
+            for (int i = lineStart; i <= contentEnd; i++) {
+                if (i == contentEnd || buf[i] == ',') {
+                    if (col == 0) symbolEnd = i;
+                    if (col == column) {
+                        double value = parseDecimal(buf, colStart, i);
+                        if (!Double.isNaN(value) && symbolEnd > lineStart) {
+                            handler.row(buf, lineStart, symbolEnd, value);
+                            rows++;
+                        }
+                        break;
+                    }
+                    col++;
+                    colStart = i + 1;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    public static double parseDecimal(byte[] buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf[i] == '-' || buf[i] == '+')) negative = buf[i++] == '-';
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            byte c = buf[i];
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    if (dot) scale++;
+                } else {
+                    digits++;
+                    if (!dot) scale--;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) return Double.NaN;
+
+        int exponent = 0;
+        if (i < to && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < to && (buf[i] == '-' || buf[i] == '+')) negativeExp = buf[i++] == '-';
+            int expStart = i;
+            for (; i < to && buf[i] >= '0' && buf[i] <= '9' && exponent < 10000; i++) exponent = exponent * 10 + (buf[i] - '0');
+            if (i == expStart) return Double.NaN;
+            if (negativeExp) exponent = -exponent;
+        }
+        if (i != to) return Double.NaN;
+
+        int e10 = exponent - scale;
+        double value;
+        if (digits <= 15 && e10 >= -22 && e10 <= 22) {
+            value = e10 < 0 ? mantissa / POW10[-e10] : mantissa * POW10[e10];
+        } else {
+            value = Double.parseDouble(new String(buf, from, to - from, StandardCharsets.US_ASCII));
+            return value;
+        }
+        return negative ? -value : value;
+    }
+
+    public static int indexOf(byte[] buf, int from, int to, byte[] pattern) {
+        int last = to - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buf[i + j] != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    // Porównanie ASCII bez rozróżniania wielkości liter, bez tworzenia Stringa z bufora.
+    public static boolean equalsIgnoreCase(byte[] buf, int from, int to, String s) {
+        if (to - from != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            int a = buf[from + i];
+            int b = s.charAt(i);
+            if (a == b) continue;
+            if ((a | 0x20) != (b | 0x20) || (a | 0x20) < 'a' || (a | 0x20) > 'z') return false;
+        }
+        return true;
+    }
+
+    private static boolean isNumberChar(byte c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E';
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Silnik bez okna i bez JavaFX na classpath (np. na serwerze):
+//   java -Dheadless.seconds=60 -Dmetrics.log.seconds=10 -cp target/classes org.example.HeadlessMain
+// Konsumentem ticków jest zadanie "engine-drain" co -Dheadless.drain.ms (domyślnie 100 ms); zlecenia i alerty
+// idą na standardowe wyjście. headless.seconds = 0 działa do Ctrl+C.
+public final class HeadlessMain {
+    private HeadlessMain() { }
+
+    public static void main(String[] args) throws Exception {
+        long started = System.nanoTime();
+        long cash = Money.parseAmount(System.getProperty("headless.cash", "50000"));
+        MarketEngine engine = new MarketEngine(new StockService(), cash, Runnable::run);
+        engine.load();
+
+        MarketEngine.Listener listener = new MarketEngine.Listener() {
+            @Override public void onFill(MatchingEngine.Order order, boolean accepted) {
+                System.out.println((accepted ? "Zrealizowane " : "Odrzucone ") + MatchingEngine.describe(order));
+            }
+
+            @Override public void onAlert(AlertEngine.Fired fired) {
+                System.out.println(AlertEngine.message(fired, SymbolRegistry.DEFAULT.symbol(fired.symbolId())));
+            }
+        };
+        long drainMillis = Long.getLong("headless.drain.ms", 100);
+        engine.scheduler().schedule("engine-drain", TaskScheduler.Policy.FIXED_DELAY, drainMillis, drainMillis,
+                TimeUnit.MILLISECONDS, () -> engine.drain(listener));
+        engine.start();
+        System.out.printf("Silnik gotowy w %d ms: %d instrumentów, %d walut%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), engine.stocks().size(), engine.currencies().size());
+
+        // Ctrl+C i koniec czasu kończą się tak samo: zamknięcie silnika i raport w haku zamknięcia
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(engine), "headless-shutdown"));
+        long seconds = Long.getLong("headless.seconds", 0);
+        if (seconds > 0) {
+            TimeUnit.SECONDS.sleep(seconds);
+            System.exit(0);
+        }
+        new CountDownLatch(1).await();
+    }
+
+    private static void shutdown(MarketEngine engine) {
+        try {
+            engine.close();
+        } catch (IOException e) {
+            System.err.println("Błąd zamykania silnika: " + e);
+        }
+        // końcowe raporty tylko razem z okresowym logiem metryk (-Dmetrics.log.seconds=N)
+        if (Long.getLong("metrics.log.seconds", 0) > 0) {
+            System.out.print(engine.scheduler().report());
+            System.out.print(Metrics.DEFAULT.report());
+        }
+        System.out.printf("Gotówka: %s PLN, wartość akcji: %s PLN%n",
+                Money.format(engine.portfolio().cash()), Money.format(engine.portfolio().total()));
+    }
+}
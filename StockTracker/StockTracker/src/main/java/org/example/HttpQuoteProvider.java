@@ -0,0 +1,61 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Wspólna część providerów HTTP: zapytanie z timeoutem i sprawdzenie statusu.
+public abstract class HttpQuoteProvider implements QuoteProvider {
+    // Wspólna pula buforów - ParallelFetcher uruchamia każde zadanie na nowym wątku wirtualnym,
+    // więc bufor przypisany do wątku (ThreadLocal) nigdy nie byłby użyty drugi raz.
+    private static final int POOL_SIZE = 16;
+    private static final int MAX_POOLED_BYTES = 64 * 1024;
+    private static final ArrayBlockingQueue<ByteBody> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    protected interface BodyParser<T> {
+        T parse(ByteBody body) throws IOException;
+    }
+
+    protected final HttpClient httpClient;
+    protected final String baseUrl;
+    protected final Duration timeout;
+
+    protected HttpQuoteProvider(HttpClient httpClient, String baseUrl, Duration timeout) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    protected HttpRequest request(String url) {
+        return HttpRequest.newBuilder().uri(URI.create(url)).timeout(timeout)
+                .header("User-Agent", "Mozilla/5.0").GET().build();
+    }
+
+    // Odpowiedź trafia do bufora z puli i jest parsowana, zanim bufor do niej wróci - parser nie może
+    // zatrzymać ByteBody ani jego tablicy. Bufor, który urósł ponad MAX_POOLED_BYTES, nie wraca do puli.
+    // Po przerwaniu albo timeoucie send() klient może jeszcze dopisywać do bufora na swoim wątku -
+    // taki bufor porzucamy, wraca tylko ten z odpowiedzią odebraną do końca.
+    protected <T> T get(String url, BodyParser<T> parser) throws IOException, InterruptedException {
+        ByteBody buffer = POOL.poll();
+        if (buffer == null) buffer = new ByteBody(4096);
+        boolean received = false;
+        try {
+            HttpResponse<ByteBody> response = httpClient.send(request(url), ByteBody.into(buffer));
+            received = true;
+            if (response.statusCode() != 200) throw new IOException(name() + ": HTTP " + response.statusCode());
+            return parser.parse(response.body());
+        } finally {
+            if (received && buffer.array().length <= MAX_POOLED_BYTES) POOL.offer(buffer);
+        }
+    }
+
+    protected double jsonNumber(ByteBody body, byte[] key) throws IOException {
+        double value = FastQuoteParser.jsonNumber(body.array(), body.length(), key);
+        if (Double.isNaN(value)) throw new IOException(name() + ": brak poprawnej liczby w odpowiedzi");
+        return value;
+    }
+}
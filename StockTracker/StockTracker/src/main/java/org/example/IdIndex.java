@@ -0,0 +1,41 @@
+package org.example;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+// Indeks elementów listy po numerze symbolu: get(id) w O(1) zamiast przeszukiwania listy.
+// Słucha zmian ObservableList, więc dodanie/usunięcie pozycji od razu aktualizuje tablicę.
+public class IdIndex<T> {
+    private final ToIntFunction<T> idOf;
+    private Object[] items = new Object[64];
+
+    public IdIndex(ObservableList<T> list, ToIntFunction<T> idOf) {
+        this.idOf = idOf;
+        list.forEach(this::put);
+        list.addListener((ListChangeListener<T>) c -> {
+            while (c.next()) {
+                if (c.wasRemoved()) c.getRemoved().forEach(this::remove);
+                if (c.wasAdded()) c.getAddedSubList().forEach(this::put);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        return id >= 0 && id < items.length ? (T) items[id] : null;
+    }
+
+    private void put(T item) {
+        int id = idOf.applyAsInt(item);
+        if (id >= items.length) items = Arrays.copyOf(items, Math.max(items.length * 2, id + 1));
+        items[id] = item;
+    }
+
+    private void remove(T item) {
+        int id = idOf.applyAsInt(item);
+        if (id < items.length && items[id] == item) items[id] = null;
+    }
+}
@@ -0,0 +1,196 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Wskaźniki techniczne liczone przyrostowo - O(1) na tick, bez przeliczania okna:
+// SMA i Bollinger z bieżącej sumy i sumy kwadratów, EMA, RSI (wygładzanie Wildera), VWAP z sum narastających,
+// min/max okna z kolejek monotonicznych. Stan każdego symbolu to pola i tablice prymitywów.
+//
+// Ostatnie historyDepth wartości każdego wskaźnika jest pamiętane w buforze cyklicznym (tak jak PriceHistory),
+// więc nakładka na wykresie po zmianie symbolu tylko odczytuje gotowe liczby.
+//
+// Tylko wątek konsumenta ticków (wątek FX albo pętla HeadlessMain) - wołane z MarketEngine.applyTick dla każdego
+// zmienionego symbolu, w tym samym drain co historia i świece.
+public class IndicatorEngine {
+    public enum Kind { SMA, EMA, BOLLINGER_UPPER, BOLLINGER_LOWER, VWAP, MIN, MAX, RSI }
+
+    private static final int KINDS = Kind.values().length;
+
+    private final int period;
+    private final int rsiPeriod;
+    private final double bandWidth;
+    private final int historyDepth;
+    private State[] states = new State[64];
+
+    public IndicatorEngine(int period, int rsiPeriod, double bandWidth, int historyDepth) {
+        this.period = period;
+        this.rsiPeriod = rsiPeriod;
+        this.bandWidth = bandWidth;
+        this.historyDepth = historyDepth;
+    }
+
+    // volume = 1, jeśli źródło nie podaje wolumenu - VWAP jest wtedy średnią z ticków
+    public void onTick(int id, double price, double volume) {
+        if (id >= states.length) states = Arrays.copyOf(states, Math.max(states.length * 2, id + 1));
+        State s = states[id];
+        if (s == null) states[id] = s = new State(period, historyDepth);
+        s.update(price, volume, period, rsiPeriod, bandWidth);
+    }
+
+    // NaN, dopóki wskaźnik nie ma dość danych (np. SMA przed zapełnieniem okna)
+    public double value(int id, Kind kind) {
+        State s = id >= 0 && id < states.length ? states[id] : null;
+        return s == null ? Double.NaN : s.current[kind.ordinal()];
+    }
+
+    public int historySize(int id) {
+        State s = id >= 0 && id < states.length ? states[id] : null;
+        return s == null ? 0 : s.historySize;
+    }
+
+    // i = 0 najstarsza zapamiętana wartość, historySize() - 1 najnowsza
+    public double history(int id, Kind kind, int i) {
+        State s = states[id];
+        int start = s.historyHead - s.historySize;
+        if (start < 0) start += historyDepth;
+        return s.history[kind.ordinal()][(start + i) % historyDepth];
+    }
+
+    public int period() { return period; }
+
+    public int rsiPeriod() { return rsiPeriod; }
+
+    private static final class State {
+        final double[] current = new double[KINDS];
+        final double[][] history;
+        int historyHead;
+        int historySize;
+
+        // okno ostatnich period cen; seq = numer ticku
+        final double[] window;
+        long seq;
+        double sum;
+        double sumSq;
+
+        double ema = Double.NaN;
+
+        double lastPrice = Double.NaN;
+        double avgGain;
+        double avgLoss;
+        int rsiCount;
+
+        double pv;
+        double volume;
+
+        // kolejki monotoniczne (numer ticku + cena): minQ z rosnącymi cenami, maxQ z malejącymi
+        final MonotonicQueue minQ;
+        final MonotonicQueue maxQ;
+
+        State(int period, int historyDepth) {
+            window = new double[period];
+            minQ = new MonotonicQueue(period, true);
+            maxQ = new MonotonicQueue(period, false);
+            history = new double[KINDS][historyDepth];
+            Arrays.fill(current, Double.NaN);
+        }
+
+        void update(double price, double vol, int period, int rsiPeriod, double bandWidth) {
+            int slot = (int) (seq % period);
+            if (seq >= period) {
+                double old = window[slot];
+                sum -= old;
+                sumSq -= old * old;
+            }
+            window[slot] = price;
+            sum += price;
+            sumSq += price * price;
+            // raz na okno liczymy sumy od nowa, żeby błąd zaokrągleń się nie kumulował - nadal O(1) zamortyzowane
+            if (slot == period - 1) {
+                sum = 0;
+                sumSq = 0;
+                for (double p : window) {
+                    sum += p;
+                    sumSq += p * p;
+                }
+            }
+
+            minQ.push(seq, price);
+            maxQ.push(seq, price);
+            seq++;
+
+            double alpha = 2.0 / (period + 1);
+            ema = Double.isNaN(ema) ? price : ema + alpha * (price - ema);
+
+            if (!Double.isNaN(lastPrice)) {
+                double diff = price - lastPrice;
+                double gain = Math.max(diff, 0);
+                double loss = Math.max(-diff, 0);
+                if (rsiCount < rsiPeriod) {
+                    avgGain += gain / rsiPeriod;
+                    avgLoss += loss / rsiPeriod;
+                    rsiCount++;
+                } else {
+                    avgGain = (avgGain * (rsiPeriod - 1) + gain) / rsiPeriod;
+                    avgLoss = (avgLoss * (rsiPeriod - 1) + loss) / rsiPeriod;
+                }
+            }
+            lastPrice = price;
+
+            pv += price * vol;
+            volume += vol;
+
+            boolean full = seq >= period;
+            double mean = sum / period;
+            double sd = Math.sqrt(Math.max(0, sumSq / period - mean * mean));
+            current[Kind.SMA.ordinal()] = full ? mean : Double.NaN;
+            current[Kind.BOLLINGER_UPPER.ordinal()] = full ? mean + bandWidth * sd : Double.NaN;
+            current[Kind.BOLLINGER_LOWER.ordinal()] = full ? mean - bandWidth * sd : Double.NaN;
+            current[Kind.EMA.ordinal()] = ema;
+            current[Kind.VWAP.ordinal()] = volume > 0 ? pv / volume : Double.NaN;
+            current[Kind.MIN.ordinal()] = minQ.front();
+            current[Kind.MAX.ordinal()] = maxQ.front();
+            double rs = avgLoss == 0 ? Double.POSITIVE_INFINITY : avgGain / avgLoss;
+            current[Kind.RSI.ordinal()] = rsiCount < rsiPeriod ? Double.NaN : 100 - 100 / (1 + rs);
+
+            int depth = history[0].length;
+            for (int k = 0; k < KINDS; k++) history[k][historyHead] = current[k];
+            historyHead = (historyHead + 1) % depth;
+            if (historySize < depth) historySize++;
+        }
+    }
+
+    // Z przodu wypadają ticki spoza okna, z tyłu - ceny, które już nigdy nie będą minimum (maksimum).
+    // Każdy tick wchodzi i wychodzi z kolejki raz, więc koszt zamortyzowany O(1).
+    private static final class MonotonicQueue {
+        private final long[] seqs;
+        private final double[] values;
+        private final boolean min;
+        private int head;
+        private int size;
+
+        MonotonicQueue(int period, boolean min) {
+            seqs = new long[period];
+            values = new double[period];
+            this.min = min;
+        }
+
+        void push(long seq, double value) {
+            int period = seqs.length;
+            if (size > 0 && seqs[head] <= seq - period) {
+                head = (head + 1) % period;
+                size--;
+            }
+            while (size > 0) {
+                double back = values[(head + size - 1) % period];
+                if (min ? back < value : back > value) break;
+                size--;
+            }
+            int tail = (head + size) % period;
+            seqs[tail] = seq;
+            values[tail] = value;
+            size++;
+        }
+
+        double front() { return values[head]; }
+    }
+}
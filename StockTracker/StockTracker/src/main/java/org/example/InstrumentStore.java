@@ -0,0 +1,49 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Kurs i zmiana wszystkich instrumentów kolumnami (struct-of-arrays): tablice double indeksowane numerem
+// z SymbolRegistry. 50 tys. instrumentów to dwie tablice po 400 KB zamiast trzech obiektów właściwości
+// JavaFX (z ich listenerami) na każdy instrument. Stock jest tylko widokiem na wiersz - właściwości tworzy
+// dopiero wtedy, gdy tabela pokaże ten wiersz. Progi alertów są już w tablicach AlertEngine (ThresholdBook).
+//
+// Zapis i odczyt z wątku konsumenta ticków (MarketEngine.drain), jak portfel.
+public class InstrumentStore {
+    public static final InstrumentStore DEFAULT = new InstrumentStore();
+
+    private double[] prices = new double[64];
+    private double[] changes = new double[64];
+
+    public void set(int id, double price, double change) {
+        ensure(id);
+        prices[id] = price;
+        changes[id] = change;
+    }
+
+    public void setPrice(int id, double price) {
+        ensure(id);
+        prices[id] = price;
+    }
+
+    public void setChange(int id, double change) {
+        ensure(id);
+        changes[id] = change;
+    }
+
+    public double price(int id) {
+        return id < prices.length ? prices[id] : 0;
+    }
+
+    public double change(int id) {
+        return id < changes.length ? changes[id] : 0;
+    }
+
+    public int capacity() { return prices.length; }
+
+    private void ensure(int id) {
+        if (id < prices.length) return;
+        int capacity = Math.max(prices.length * 2, id + 1);
+        prices = Arrays.copyOf(prices, capacity);
+        changes = Arrays.copyOf(changes, capacity);
+    }
+}
@@ -0,0 +1,286 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Rdzeń bez JavaFX: notowania (StockService, monitor BTC), symulacja albo odtwarzanie nagrania, dziennik ticków,
+// alerty, zlecenia oczekujące, portfel, bieżące kursy (InstrumentStore) oraz historia cen, wskaźniki i świece.
+//
+// Producenci (symulator, monitor, replay) tylko publikują do TickBuffer; alerty i zlecenia sprawdzane są
+// przy publikacji, na ich wątkach. Konsument - AnimationTimer w StockApp albo zadanie HeadlessMain - woła
+// drain(listener) i w jednym wątku dostaje zmienione ceny, zlecenia już rozliczone w portfelu i odpalone alerty.
+// Portfel, historia, wskaźniki i świece są zmieniane tylko w drain, więc czyta się je z tego samego wątku.
+public class MarketEngine {
+    public interface Listener {
+        default void onTick(int id, double price, double change) { }
+
+        // accepted = false: w chwili realizacji zabrakło gotówki (kupno) albo akcji (sprzedaż)
+        // order wraca do puli MatchingEngine po powrocie - tylko do odczytu na miejscu
+        default void onFill(MatchingEngine.Order order, boolean accepted) { }
+
+        default void onAlert(AlertEngine.Fired fired) { }
+    }
+
+    private static final Metrics.Counter TICKS_PUBLISHED = Metrics.DEFAULT.counter("ticks.published");
+    private static final Metrics.Counter TICKS_APPLIED = Metrics.DEFAULT.counter("ticks.applied");
+
+    private final StockService stockService;
+    // np. Platform::runLater - tylko do pomiaru opóźnienia konsumenta przy odtwarzaniu
+    private final Consumer<Runnable> consumerExecutor;
+    private final SymbolRegistry registry = SymbolRegistry.DEFAULT;
+    private final List<Quote> stocks = new ArrayList<>();
+    private final List<Quote> currencies = new ArrayList<>();
+    private final Portfolio portfolio;
+    // Kurs i zmiana po ostatnim drain - z tego czytają widoki Stock w UI
+    private final InstrumentStore instruments = InstrumentStore.DEFAULT;
+
+    // Historia cen śledzonych symboli w tablicach prymitywów
+    private final PriceHistoryStore history = new PriceHistoryStore(Integer.getInteger("chart.history.depth", 3600));
+    // Wskaźniki liczone przy każdym ticku; ostatnie wartości odtwarzają nakładki po zmianie symbolu
+    private final IndicatorEngine indicators = new IndicatorEngine(Integer.getInteger("indicator.period", 20), 14, 2.0,
+            Integer.getInteger("indicator.history.depth", 300));
+    // Świece śledzonych symboli w kilku rozdzielczościach
+    private final CandleAggregator candles = new CandleAggregator();
+    // Na symbol: historia ~58 KB, wskaźniki ~19 KB, świece od ~10 KB do ~311 KB po rozgrzaniu (3600 + 1440
+    // + 2016 + 720 świec po 40 B) - razem do ~390 KB, przy 50 tys. instrumentów kilkanaście GB.
+    // Do -Dhistory.track.all.max instrumentów (domyślnie 100, czyli do ~40 MB) liczymy je dla wszystkich,
+    // powyżej tylko dla symboli włączonych przez track() (wykres, obserwowane) - także przy odtwarzaniu dziennika.
+    private final BitSet tracked = new BitSet();
+    private boolean trackAll = true;
+
+    private final AlertEngine alertEngine = new AlertEngine();
+    private final MatchingEngine matchingEngine = new MatchingEngine();
+    private final MarketSimulator simulator = new MarketSimulator(Long.getLong("sim.seed", System.nanoTime()));
+    // Wspólne wątki zadań okresowych (monitor BTC, symulator, metryki) - zatrzymywane w close()
+    private final TaskScheduler scheduler = new TaskScheduler("stocktracker", Integer.getInteger("scheduler.threads", 2));
+    // -Dreplay.source=... : ceny z nagrania zamiast API i symulacji (dziennika wtedy nie zapisujemy)
+    private final String replaySource = System.getProperty("replay.source");
+
+    private TickBuffer ticks;
+    private TickJournal journal;
+    private ReplayFeed replay;
+
+    // Stan bieżącego drain - consumer ticków jest jeden, żeby nie alokować lambdy na każdą paczkę
+    private final TickBuffer.TickConsumer tickApplier = this::applyTick;
+    private Listener drainListener;
+    private long drainMillis;
+
+    // stockService = null: bez API i monitora BTC, instrumenty tylko z load(stocks, currencies)
+    public MarketEngine(StockService stockService, long cash, Consumer<Runnable> consumerExecutor) {
+        this.stockService = stockService;
+        this.consumerExecutor = consumerExecutor;
+        this.portfolio = new Portfolio(cash);
+    }
+
+    // Notowania z API, sztuczne instrumenty (-Dsim.synthetic=N, tylko symulacja) i historia z dziennika
+    public void load() {
+        List<Quote> loaded = new ArrayList<>(stockService.getStocks());
+        int synthetic = Integer.getInteger("sim.synthetic", 0);
+        for (int i = 0; i < synthetic; i++) loaded.add(new Quote(String.format("SIM%05d", i), 100.0));
+        load(loaded, stockService.getCurrencies());
+        if (replaySource == null) openJournal();
+    }
+
+    public void load(List<Quote> stockQuotes, List<Quote> currencyQuotes) {
+        stocks.addAll(stockQuotes);
+        currencies.addAll(currencyQuotes);
+        for (Quote q : stocks) registry.intern(q.symbol());
+        for (Quote q : currencies) registry.intern(q.symbol());
+        trackAll = stocks.size() + currencies.size() <= Integer.getInteger("history.track.all.max", 100);
+
+        ticks = new TickBuffer(registry, registry.size());
+        for (Quote q : stocks) {
+            int id = registry.idOf(q.symbol());
+            ticks.seed(id, q.price());
+            instruments.set(id, q.price(), 0);
+            portfolio.onPrice(id, Money.ofPrice(q.price()));
+        }
+        for (Quote q : currencies) {
+            int id = registry.idOf(q.symbol());
+            ticks.seed(id, q.price());
+            instruments.set(id, q.price(), 0);
+        }
+        // alerty i zlecenia oczekujące sprawdzane od razu przy publikacji ceny, na wątku producenta
+        ticks.setPublishListener((id, price, change) -> {
+            TICKS_PUBLISHED.increment();
+            alertEngine.onPrice(id, price);
+            matchingEngine.onPrice(id, price);
+        });
+    }
+
+    // Metryki oraz źródło cen: nagranie albo strumień krypto i monitor BTC + symulacja. Wyjątek tylko przy złym nagraniu.
+    public void start() throws IOException {
+        startMetrics();
+        if (replaySource != null) {
+            startReplay(replaySource);
+            return;
+        }
+        if (stockService != null) {
+            // -Dcrypto.stream=false: tylko odpytywanie REST co 5 s, jak wcześniej
+            if (Boolean.parseBoolean(System.getProperty("crypto.stream", "true"))) {
+                stockService.startMarketStream(ticks, scheduler);
+            }
+            stockService.startMarketMonitor(ticks, scheduler);
+        }
+        startMarketSimulation();
+    }
+
+    // Wątek konsumenta: zmienione symbole jedną paczką, potem zrealizowane zlecenia i odpalone alerty.
+    // Zwraca liczbę zmienionych symboli.
+    public int drain(Listener listener) {
+        drainListener = listener;
+        drainMillis = System.currentTimeMillis();
+        int changed = ticks.drain(tickApplier);
+        if (changed > 0) TICKS_APPLIED.add(changed);
+        if (matchingEngine.hasFills()) {
+            matchingEngine.drainFills(o -> {
+                boolean buy = o.getSide() == MatchingEngine.Side.BUY;
+                boolean ok = buy ? portfolio.buy(o.getSymbolId(), o.getQuantity(), o.getFillPrice())
+                        : portfolio.sell(o.getSymbolId(), o.getQuantity(), o.getFillPrice());
+                listener.onFill(o, ok);
+            });
+        }
+        if (alertEngine.hasFired()) alertEngine.drainFired(listener::onAlert);
+        drainListener = null;
+        return changed;
+    }
+
+    private void applyTick(int id, double price, double change) {
+        if (journal != null) journal.append(id, TickJournal.epochNanos(), price, change);
+        instruments.set(id, price, change);
+        portfolio.onPrice(id, Money.ofPrice(price));
+        if (trackAll || tracked.get(id)) {
+            history.add(id, drainMillis, price);
+            indicators.onTick(id, price, 1);
+            candles.onTick(id, drainMillis, price);
+        }
+        drainListener.onTick(id, price, change);
+    }
+
+    public void close() throws IOException {
+        simulator.stop();
+        if (replay != null) replay.stop();
+        scheduler.shutdown(2, TimeUnit.SECONDS);
+        if (stockService != null) stockService.close();
+        if (journal != null) journal.close();
+    }
+
+    public List<Quote> stocks() { return stocks; }
+
+    public List<Quote> currencies() { return currencies; }
+
+    public TickBuffer ticks() { return ticks; }
+
+    public Portfolio portfolio() { return portfolio; }
+
+    public InstrumentStore instruments() { return instruments; }
+
+    public AlertEngine alerts() { return alertEngine; }
+
+    public MatchingEngine orders() { return matchingEngine; }
+
+    // Wątek konsumenta ticków (jak drain). Historia nowo śledzonego symbolu jest uzupełniana z dziennika
+    // (tylko jego rekordy), bez dziennika zaczyna się od najbliższego ticku.
+    public void track(int id) {
+        if (trackAll || tracked.get(id)) return;
+        tracked.set(id);
+        if (journal == null) return;
+        try {
+            TickJournal.read(journalDir(), registry.symbol(id), (symbol, epochNanos, price, change) ->
+                    replayTick(id, epochNanos, price));
+        } catch (IOException e) {
+            System.err.println("Nie udało się odczytać historii " + registry.symbol(id) + " z dziennika: " + e);
+        }
+    }
+
+    public boolean isTracked(int id) { return trackAll || tracked.get(id); }
+
+    public PriceHistoryStore history() { return history; }
+
+    public IndicatorEngine indicators() { return indicators; }
+
+    public CandleAggregator candles() { return candles; }
+
+    public TaskScheduler scheduler() { return scheduler; }
+
+    // null, jeśli ceny nie pochodzą z nagrania
+    public ReplayFeed replay() { return replay; }
+
+    // --- DZIENNIK TICKÓW ---
+    // Najpierw odtwarzamy historię wykresów z poprzednich sesji (tylko śledzonych symboli, resztę
+    // uzupełnia track()), potem otwieramy dziennik do zapisu. Pakietowy dla testów - load() bez API go nie woła.
+    void openJournal() {
+        if (!Boolean.parseBoolean(System.getProperty("journal.enabled", "true"))) return;
+        Path dir = journalDir();
+        try {
+            TickJournal.read(dir, (symbol, epochNanos, price, change) -> {
+                int id = registry.idOf(symbol);
+                if (id < 0 || !isTracked(id)) return;
+                replayTick(id, epochNanos, price);
+            });
+            long segmentBytes = Long.getLong("journal.segment.mb", 16) * 1024 * 1024;
+            journal = new TickJournal(dir, segmentBytes, Integer.getInteger("journal.segments", 8), registry);
+        } catch (IOException e) {
+            System.err.println("Nie udało się otworzyć dziennika ticków: " + e);
+        }
+    }
+
+    private void replayTick(int id, long epochNanos, double price) {
+        history.add(id, epochNanos / 1_000_000, price);
+        indicators.onTick(id, price, 1);
+        candles.onTick(id, epochNanos / 1_000_000, price);
+    }
+
+    private static Path journalDir() {
+        return Path.of(System.getProperty("journal.dir", System.getProperty("user.home") + "/.stocktracker/journal"));
+    }
+
+    // --- ODTWARZANIE ---
+    // -Dreplay.speed=1 | 100 | max
+    private void startReplay(String source) throws IOException {
+        replay = ReplayFeed.fromSpec(source, journalDir(), registry);
+        replay.start(ticks, ReplayFeed.parseSpeed(System.getProperty("replay.speed", "1")), consumerExecutor);
+    }
+
+    // Ceny liczone poza wątkiem konsumenta - do bufora trafia tylko ostatnia wartość.
+    // -Dsim.rate.hz=100 -Dsim.synthetic=5000 daje test obciążenia; -Dsim.model=gbm|jump|meanrev zmienia model akcji.
+    private void startMarketSimulation() {
+        double vol = Double.parseDouble(System.getProperty("sim.vol", "0.003"));
+        MarketSimulator.Params stockParams = switch (System.getProperty("sim.model", "gbm")) {
+            case "jump" -> MarketSimulator.Params.jumpDiffusion(0, vol, 0.01, -0.01, 0.03);
+            case "meanrev" -> MarketSimulator.Params.meanReversion(0.01, 0, vol);
+            default -> MarketSimulator.Params.gbm(0, vol);
+        };
+        // kurs waluty wraca do średniej zamiast błądzić
+        MarketSimulator.Params currencyParams = MarketSimulator.Params.meanReversion(0.01, 0, vol / 5);
+
+        simulator.setRate(Double.parseDouble(System.getProperty("sim.rate.hz", "1")));
+        int btc = ticks.indexOf("BITCOIN");
+        for (Quote q : stocks) {
+            int id = registry.idOf(q.symbol());
+            if (id == btc && stockService != null) continue; // BTC przychodzi ze strumienia albo monitora
+            simulator.add(id, ticks.price(id), stockParams);
+        }
+        // USD/PLN, EUR/PLN...; -1 = NBP nie podał kursu, nie ma czego symulować
+        for (Quote q : currencies) {
+            int id = registry.idOf(q.symbol());
+            if (ticks.price(id) > 0) simulator.add(id, ticks.price(id), currencyParams);
+        }
+        simulator.start(scheduler, ticks::publish);
+    }
+
+    // Próbkowanie tempa liczników i opcjonalny zrzut do logu (-Dmetrics.log.seconds=N)
+    private void startMetrics() {
+        scheduler.schedule("metrics-sampler", TaskScheduler.Policy.FIXED_RATE, 1, 1, TimeUnit.SECONDS, Metrics.DEFAULT::sample);
+        long logSeconds = Long.getLong("metrics.log.seconds", 0);
+        if (logSeconds > 0) {
+            scheduler.schedule("metrics-log", TaskScheduler.Policy.FIXED_RATE, logSeconds, logSeconds, TimeUnit.SECONDS,
+                    () -> System.out.print(Metrics.DEFAULT.report()));
+        }
+    }
+}
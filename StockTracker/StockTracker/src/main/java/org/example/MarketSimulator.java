@@ -0,0 +1,199 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Symulator rynku jako zadanie TaskScheduler: wszystkie instrumenty danego modelu przesuwane jednym krokiem
+// na tablicach prymitywów (ceny, parametry, losowania). Pętle kroku to proste przebiegi po tablicach,
+// bez obiektów i rozgałęzień na instrument - najpierw losowania do z[], potem arytmetyka.
+//
+// Parametry są "na sekundę": zmienność 0.003 to ok. 0.3% odchylenia na sekundę, niezależnie od częstotliwości
+// ticków. Stan trzymamy bez zaokrągleń (przy 100 Hz ruchy są mniejsze niż grosz), publikujemy cenę w groszach.
+//
+// Jeden SplittableRandom, używany tylko pod blokadą symulatora - zadanie nigdy nie biegnie równolegle ze sobą.
+// Krok dłuższy niż okres (np. 10k instrumentów przy 100 Hz) pomija terminy zamiast kolejkować zaległe kroki.
+public class MarketSimulator {
+    public enum Model { GBM, JUMP_DIFFUSION, MEAN_REVERSION }
+
+    // drift, volatility: na sekundę; jumpIntensity: skoki na sekundę; jumpMean/jumpVolatility: log-wielkość skoku;
+    // reversionSpeed: na sekundę, longRunMean: cena, do której wraca MEAN_REVERSION (0 = cena startowa)
+    public record Params(Model model, double drift, double volatility, double jumpIntensity, double jumpMean,
+                         double jumpVolatility, double reversionSpeed, double longRunMean) {
+        public static Params gbm(double drift, double volatility) {
+            return new Params(Model.GBM, drift, volatility, 0, 0, 0, 0, 0);
+        }
+
+        public static Params jumpDiffusion(double drift, double volatility, double intensity, double jumpMean, double jumpVolatility) {
+            return new Params(Model.JUMP_DIFFUSION, drift, volatility, intensity, jumpMean, jumpVolatility, 0, 0);
+        }
+
+        public static Params meanReversion(double speed, double longRunMean, double volatility) {
+            return new Params(Model.MEAN_REVERSION, 0, volatility, 0, 0, 0, speed, longRunMean);
+        }
+    }
+
+    public interface TickSink {
+        void tick(int symbolId, double price, double changePercent);
+    }
+
+    private final Batch[] batches = new Batch[Model.values().length];
+    private final SplittableRandom random;
+    private double rateHz = 1.0;
+    private TaskScheduler.Task task;
+    private long steps;
+
+    public MarketSimulator(long seed) {
+        random = new SplittableRandom(seed);
+        for (Model m : Model.values()) batches[m.ordinal()] = new Batch(m);
+    }
+
+    public synchronized void add(int symbolId, double price, Params params) {
+        batches[params.model().ordinal()].add(symbolId, price, params, 1.0 / rateHz);
+    }
+
+    public synchronized int size() {
+        int n = 0;
+        for (Batch b : batches) n += b.size;
+        return n;
+    }
+
+    public synchronized long steps() { return steps; }
+
+    // Przed start() - działający wątek zachowuje swój okres
+    public synchronized void setRate(double hz) {
+        if (hz <= 0) throw new IllegalArgumentException("Częstotliwość musi być dodatnia");
+        rateHz = hz;
+        for (Batch b : batches) b.rescale(1.0 / hz);
+    }
+
+    public synchronized void start(TaskScheduler scheduler, TickSink sink) {
+        if (task != null) return;
+        long periodNanos = (long) (1_000_000_000L / rateHz);
+        task = scheduler.schedule("market-simulator", TaskScheduler.Policy.FIXED_RATE, 0, periodNanos, TimeUnit.NANOSECONDS,
+                () -> step(sink));
+    }
+
+    public synchronized void stop() {
+        if (task != null) task.cancel();
+        task = null;
+    }
+
+    // Jeden krok wszystkich instrumentów. Publiczny, żeby dało się go mierzyć bez wątku.
+    public synchronized void step(TickSink sink) {
+        for (Batch b : batches) {
+            if (b.size == 0) continue;
+            b.advance(random);
+            b.emit(sink);
+        }
+        steps++;
+    }
+
+    private static final class Batch {
+        final Model model;
+        int size;
+        int[] ids = new int[16];
+        double[] prices = new double[16];
+        double[] previous = new double[16];
+        double[] z = new double[16];
+        // parametry w jednostkach "na sekundę" i przeliczone na krok dt
+        double[] drift = new double[16];
+        double[] vol = new double[16];
+        double[] intensity = new double[16];
+        double[] jumpMean = new double[16];
+        double[] jumpVol = new double[16];
+        double[] speed = new double[16];
+        double[] logMean = new double[16];
+        double[] driftStep = new double[16];
+        double[] volStep = new double[16];
+        double[] jumpProbStep = new double[16];
+        double[] decayStep = new double[16];
+
+        Batch(Model model) {
+            this.model = model;
+        }
+
+        void add(int id, double price, Params p, double dt) {
+            if (size == ids.length) grow(size * 2);
+            ids[size] = id;
+            prices[size] = price;
+            previous[size] = price;
+            drift[size] = p.drift();
+            vol[size] = p.volatility();
+            intensity[size] = p.jumpIntensity();
+            jumpMean[size] = p.jumpMean();
+            jumpVol[size] = p.jumpVolatility();
+            speed[size] = p.reversionSpeed();
+            logMean[size] = Math.log(p.longRunMean() > 0 ? p.longRunMean() : price);
+            rescale(size, dt);
+            size++;
+        }
+
+        // Stałe kroku liczone raz przy zmianie częstotliwości, nie w każdym ticku
+        void rescale(double dt) {
+            for (int i = 0; i < size; i++) rescale(i, dt);
+        }
+
+        private void rescale(int i, double dt) {
+            double s = vol[i];
+            // kompensacja skoków (Merton): E[e^J] - 1, żeby drift nie zależał od skoków
+            double k = Math.exp(jumpMean[i] + 0.5 * jumpVol[i] * jumpVol[i]) - 1;
+            driftStep[i] = (drift[i] - 0.5 * s * s - intensity[i] * k) * dt;
+            volStep[i] = s * Math.sqrt(dt);
+            jumpProbStep[i] = intensity[i] * dt;
+            decayStep[i] = 1 - Math.exp(-speed[i] * dt);
+        }
+
+        void advance(SplittableRandom random) {
+            int n = size;
+            double[] p = prices;
+            System.arraycopy(p, 0, previous, 0, n);
+            for (int i = 0; i < n; i++) z[i] = random.nextGaussian();
+            switch (model) {
+                case GBM -> {
+                    for (int i = 0; i < n; i++) p[i] *= Math.exp(driftStep[i] + volStep[i] * z[i]);
+                }
+                case JUMP_DIFFUSION -> {
+                    for (int i = 0; i < n; i++) p[i] *= Math.exp(driftStep[i] + volStep[i] * z[i]);
+                    // skoki są rzadkie - osobna pętla losuje tylko, czy wystąpiły
+                    for (int i = 0; i < n; i++) {
+                        if (random.nextDouble() < jumpProbStep[i]) p[i] *= Math.exp(jumpMean[i] + jumpVol[i] * random.nextGaussian());
+                    }
+                }
+                case MEAN_REVERSION -> {
+                    // Ornstein-Uhlenbeck na logarytmie ceny
+                    for (int i = 0; i < n; i++) {
+                        double x = Math.log(p[i]);
+                        p[i] = Math.exp(x + (logMean[i] - x) * decayStep[i] + volStep[i] * z[i]);
+                    }
+                }
+            }
+        }
+
+        void emit(TickSink sink) {
+            for (int i = 0; i < size; i++) {
+                double published = Math.round(prices[i] * 100.0) / 100.0;
+                double change = Math.round((prices[i] / previous[i] - 1) * 10000.0) / 100.0;
+                sink.tick(ids[i], published, change);
+            }
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            z = Arrays.copyOf(z, capacity);
+            drift = Arrays.copyOf(drift, capacity);
+            vol = Arrays.copyOf(vol, capacity);
+            intensity = Arrays.copyOf(intensity, capacity);
+            jumpMean = Arrays.copyOf(jumpMean, capacity);
+            jumpVol = Arrays.copyOf(jumpVol, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            logMean = Arrays.copyOf(logMean, capacity);
+            driftStep = Arrays.copyOf(driftStep, capacity);
+            volStep = Arrays.copyOf(volStep, capacity);
+            jumpProbStep = Arrays.copyOf(jumpProbStep, capacity);
+            decayStep = Arrays.copyOf(decayStep, capacity);
+        }
+    }
+}
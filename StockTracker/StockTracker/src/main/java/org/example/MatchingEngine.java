@@ -0,0 +1,346 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Zlecenia oczekujące (limit, stop, stop-limit) realizowane przez ticki z monitora/symulacji.
+// Każdy symbol ma cztery księgi poziomów cenowych: kupno-limit, sprzedaż-limit, kupno-stop, sprzedaż-stop.
+// Poziom to cena w groszach (long) + kolejka FIFO zleceń - priorytet ceny, potem czasu. Ilości w jednostkach Money.
+//
+// onPrice() działa na wątku producenta i niczego nie alokuje: obiekty Order pochodzą z puli, kolejki są
+// wiązane przez pole next, a zrealizowane zlecenia trafiają na listę, którą UI zbiera raz na klatkę.
+public class MatchingEngine {
+    public enum Side { BUY, SELL }
+    public enum Type { LIMIT, STOP, STOP_LIMIT }
+
+    public interface FillConsumer {
+        // Order wraca do puli po powrocie z metody - nie wolno go zapamiętywać
+        void onFill(Order order);
+    }
+
+    public static final class Order {
+        private int id;
+        private int symbolId;
+        private Side side;
+        private Type type;
+        private long limitKey;
+        private long stopKey;
+        private long quantity;
+        private long fillPrice;
+        private Order next;
+
+        public int getId() { return id; }
+        public int getSymbolId() { return symbolId; }
+        public Side getSide() { return side; }
+        public Type getType() { return type; }
+        public long getLimitPrice() { return limitKey; }
+        public long getStopPrice() { return stopKey; }
+        public long getQuantity() { return quantity; }
+        public long getFillPrice() { return fillPrice; }
+    }
+
+    private static final class SymbolBook {
+        final LevelBook buyLimits = new LevelBook();
+        final LevelBook sellLimits = new LevelBook();
+        final LevelBook buyStops = new LevelBook();
+        final LevelBook sellStops = new LevelBook();
+    }
+
+    private volatile SymbolBook[] books = new SymbolBook[0];
+    private final Object poolLock = new Object();
+    private Order[] pool = new Order[0];
+    private int poolSize = 0;
+    private int nextId = 1;
+
+    private final Object fillsLock = new Object();
+    private Order fillsHead;
+    private Order fillsTail;
+    private volatile boolean hasFills;
+
+    // quantity w jednostkach Money.UNITS, ceny w groszach. Zwraca numer zlecenia (do cancel), a nie sam Order -
+    // obiekt wraca do puli po realizacji albo anulowaniu i zaraz służy innemu zleceniu.
+    public int place(int symbolId, Side side, Type type, long quantity, long limitPrice, long stopPrice) {
+        Order o = acquire();
+        o.symbolId = symbolId;
+        o.side = side;
+        o.type = type;
+        o.quantity = quantity;
+        o.limitKey = limitPrice;
+        o.stopKey = stopPrice;
+        o.fillPrice = 0;
+        o.next = null;
+        // odczyt przed wstawieniem - po wyjściu z blokady zlecenie może już być zrealizowane i w puli
+        int id = o.id;
+        SymbolBook b = book(symbolId);
+        synchronized (b) {
+            if (type == Type.LIMIT) (side == Side.BUY ? b.buyLimits : b.sellLimits).add(o, o.limitKey);
+            else (side == Side.BUY ? b.buyStops : b.sellStops).add(o, o.stopKey);
+        }
+        return id;
+    }
+
+    public boolean cancel(int symbolId, int orderId) {
+        SymbolBook[] all = books;
+        if (symbolId >= all.length || all[symbolId] == null) return false;
+        SymbolBook b = all[symbolId];
+        Order removed;
+        synchronized (b) {
+            removed = b.buyLimits.remove(orderId);
+            if (removed == null) removed = b.sellLimits.remove(orderId);
+            if (removed == null) removed = b.buyStops.remove(orderId);
+            if (removed == null) removed = b.sellStops.remove(orderId);
+        }
+        if (removed != null) release(removed);
+        return removed != null;
+    }
+
+    public void cancelAll(int symbolId) {
+        for (int id : openOrderIds(symbolId)) cancel(symbolId, id);
+    }
+
+    // Gorąca ścieżka. Najpierw stopy (stop-limit może od razu stać się wykonywalnym limitem), potem limity.
+    public void onPrice(int symbolId, double price) {
+        SymbolBook[] all = books;
+        if (symbolId >= all.length) return;
+        SymbolBook b = all[symbolId];
+        if (b == null) return;
+        long k = Money.ofPrice(price);
+        synchronized (b) {
+            while (b.buyStops.lowest() <= k) triggerLevel(b, b.buyStops.pollLowest(), k);
+            while (b.sellStops.highest() >= k) triggerLevel(b, b.sellStops.pollHighest(), k);
+            while (b.buyLimits.highest() >= k) fillLevel(b.buyLimits.pollHighest(), k);
+            while (b.sellLimits.lowest() <= k) fillLevel(b.sellLimits.pollLowest(), k);
+        }
+    }
+
+    public boolean hasFills() { return hasFills; }
+
+    public int drainFills(FillConsumer consumer) {
+        Order list;
+        synchronized (fillsLock) {
+            list = fillsHead;
+            fillsHead = fillsTail = null;
+            hasFills = false;
+        }
+        int n = 0;
+        while (list != null) {
+            Order next = list.next;
+            consumer.onFill(list);
+            release(list);
+            list = next;
+            n++;
+        }
+        return n;
+    }
+
+    public int openOrders(int symbolId) {
+        SymbolBook[] all = books;
+        if (symbolId >= all.length || all[symbolId] == null) return 0;
+        SymbolBook b = all[symbolId];
+        synchronized (b) {
+            return b.buyLimits.orders + b.sellLimits.orders + b.buyStops.orders + b.sellStops.orders;
+        }
+    }
+
+    public List<Integer> openOrderIds(int symbolId) {
+        List<Integer> ids = new ArrayList<>();
+        forEachOpen(symbolId, o -> ids.add(o.id));
+        return ids;
+    }
+
+    public List<String> describe(int symbolId) {
+        List<String> lines = new ArrayList<>();
+        forEachOpen(symbolId, o -> lines.add(describe(o)));
+        return lines;
+    }
+
+    public static String describe(Order o) {
+        String side = o.side == Side.BUY ? "Kupno" : "Sprzedaż";
+        String head = "#" + o.id + " " + side + " " + Money.formatQuantity(o.quantity, 4);
+        return switch (o.type) {
+            case LIMIT -> head + " limit " + Money.format(o.limitKey);
+            case STOP -> head + " stop " + Money.format(o.stopKey);
+            case STOP_LIMIT -> head + " stop " + Money.format(o.stopKey) + " limit " + Money.format(o.limitKey);
+        };
+    }
+
+    private void forEachOpen(int symbolId, Consumer<Order> action) {
+        SymbolBook[] all = books;
+        if (symbolId >= all.length || all[symbolId] == null) return;
+        SymbolBook b = all[symbolId];
+        synchronized (b) {
+            b.buyLimits.forEach(action);
+            b.sellLimits.forEach(action);
+            b.buyStops.forEach(action);
+            b.sellStops.forEach(action);
+        }
+    }
+
+    private void triggerLevel(SymbolBook b, Order o, long k) {
+        while (o != null) {
+            Order next = o.next;
+            o.next = null;
+            if (o.type == Type.STOP) {
+                fill(o, k);
+            } else {
+                // stop-limit zamienia się w zwykły limit
+                o.type = Type.LIMIT;
+                boolean marketable = o.side == Side.BUY ? o.limitKey >= k : o.limitKey <= k;
+                if (marketable) fill(o, k);
+                else (o.side == Side.BUY ? b.buyLimits : b.sellLimits).add(o, o.limitKey);
+            }
+            o = next;
+        }
+    }
+
+    private void fillLevel(Order o, long k) {
+        while (o != null) {
+            Order next = o.next;
+            o.next = null;
+            fill(o, k);
+            o = next;
+        }
+    }
+
+    private void fill(Order o, long k) {
+        o.fillPrice = k;
+        synchronized (fillsLock) {
+            if (fillsTail == null) fillsHead = o;
+            else fillsTail.next = o;
+            fillsTail = o;
+            hasFills = true;
+        }
+    }
+
+    private Order acquire() {
+        synchronized (poolLock) {
+            Order o = poolSize > 0 ? pool[--poolSize] : new Order();
+            o.id = nextId++;
+            return o;
+        }
+    }
+
+    private void release(Order o) {
+        o.next = null;
+        synchronized (poolLock) {
+            if (poolSize == pool.length) pool = Arrays.copyOf(pool, Math.max(16, pool.length * 2));
+            pool[poolSize++] = o;
+        }
+    }
+
+    private synchronized SymbolBook book(int symbolId) {
+        SymbolBook[] all = books;
+        if (symbolId < all.length && all[symbolId] != null) return all[symbolId];
+        SymbolBook[] copy = Arrays.copyOf(all, Math.max(all.length, symbolId + 1));
+        copy[symbolId] = new SymbolBook();
+        books = copy;
+        return copy[symbolId];
+    }
+
+    // Poziomy cenowe posortowane rosnąco w [lo, hi); na każdym poziomie kolejka FIFO (heads/tails).
+    // Zdejmowanie całego poziomu z dowolnego końca - O(1); nowy poziom w środku - O(liczba poziomów).
+    static final class LevelBook {
+        private long[] keys = new long[16];
+        private Order[] heads = new Order[16];
+        private Order[] tails = new Order[16];
+        private int lo = 0;
+        private int hi = 0;
+        int orders = 0;
+
+        long lowest() { return lo < hi ? keys[lo] : Long.MAX_VALUE; }
+
+        long highest() { return hi > lo ? keys[hi - 1] : Long.MIN_VALUE; }
+
+        void add(Order o, long key) {
+            orders++;
+            int pos = Arrays.binarySearch(keys, lo, hi, key);
+            if (pos >= 0) {
+                tails[pos].next = o;
+                tails[pos] = o;
+                return;
+            }
+            pos = -pos - 1;
+            if (hi == keys.length) {
+                int n = hi - lo;
+                if (lo > 0 && n < keys.length / 2) {
+                    System.arraycopy(keys, lo, keys, 0, n);
+                    System.arraycopy(heads, lo, heads, 0, n);
+                    System.arraycopy(tails, lo, tails, 0, n);
+                    Arrays.fill(heads, n, hi, null);
+                    Arrays.fill(tails, n, hi, null);
+                } else {
+                    keys = Arrays.copyOfRange(keys, lo, lo + keys.length * 2);
+                    heads = Arrays.copyOfRange(heads, lo, lo + heads.length * 2);
+                    tails = Arrays.copyOfRange(tails, lo, lo + tails.length * 2);
+                }
+                pos -= lo;
+                lo = 0;
+                hi = n;
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, hi - pos);
+            System.arraycopy(heads, pos, heads, pos + 1, hi - pos);
+            System.arraycopy(tails, pos, tails, pos + 1, hi - pos);
+            keys[pos] = key;
+            heads[pos] = o;
+            tails[pos] = o;
+            hi++;
+        }
+
+        // Zwraca kolejkę zleceń najniższego poziomu (połączoną przez next) i usuwa poziom
+        Order pollLowest() {
+            Order o = heads[lo];
+            heads[lo] = tails[lo] = null;
+            if (++lo == hi) lo = hi = 0;
+            orders -= count(o);
+            return o;
+        }
+
+        Order pollHighest() {
+            hi--;
+            Order o = heads[hi];
+            heads[hi] = tails[hi] = null;
+            if (lo == hi) lo = hi = 0;
+            orders -= count(o);
+            return o;
+        }
+
+        Order remove(int orderId) {
+            for (int i = lo; i < hi; i++) {
+                Order prev = null;
+                for (Order o = heads[i]; o != null; prev = o, o = o.next) {
+                    if (o.id != orderId) continue;
+                    if (prev == null) heads[i] = o.next;
+                    else prev.next = o.next;
+                    if (tails[i] == o) tails[i] = prev;
+                    o.next = null;
+                    orders--;
+                    if (heads[i] == null) removeLevel(i);
+                    return o;
+                }
+            }
+            return null;
+        }
+
+        void forEach(Consumer<Order> action) {
+            for (int i = lo; i < hi; i++) {
+                for (Order o = heads[i]; o != null; o = o.next) action.accept(o);
+            }
+        }
+
+        private void removeLevel(int i) {
+            System.arraycopy(keys, i + 1, keys, i, hi - i - 1);
+            System.arraycopy(heads, i + 1, heads, i, hi - i - 1);
+            System.arraycopy(tails, i + 1, tails, i, hi - i - 1);
+            hi--;
+            heads[hi] = tails[hi] = null;
+        }
+
+        private static int count(Order o) {
+            int n = 0;
+            for (; o != null; o = o.next) n++;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Rejestr metryk: liczniki (LongAdder) i histogramy opóźnień, bez blokad na ścieżce zapisu.
+// Zapis to jedno increment / jedno getAndIncrement na komórce tablicy - można wołać przy każdym ticku.
+// Odczyt (report, diagnostyka) jest rzadki i może być wolniejszy.
+//
+// Metryki tworzymy raz (np. w polu static final) i trzymamy referencję; counter()/histogram() z nazwą
+// to tylko wyszukanie w mapie, nie do wołania w pętli.
+public class Metrics {
+    public static final Metrics DEFAULT = new Metrics();
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private long lastSample = System.nanoTime();
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    // Wołane co sekundę (zadanie w TaskScheduler) - liczy tempo liczników od poprzedniego próbkowania
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSample) / 1e9;
+        lastSample = now;
+        if (seconds <= 0) return;
+        for (Counter c : counters.values()) {
+            long value = c.get();
+            c.rate = (value - c.sampled) / seconds;
+            c.sampled = value;
+        }
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        counters.forEach((name, c) -> sb.append(String.format("%-28s %12d  %10.1f/s%n", name, c.get(), c.rate())));
+        histograms.forEach((name, h) -> {
+            if (h.count() == 0) return;
+            sb.append(String.format("%-28s n=%-9d p50=%8.3f ms  p99=%8.3f ms  p99.9=%8.3f ms  max=%8.3f ms%n", name, h.count(),
+                    h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6, h.percentile(0.999) / 1e6, h.max() / 1e6));
+        });
+        return sb.toString();
+    }
+
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+        private long sampled;
+        private volatile double rate;
+
+        public void increment() { adder.increment(); }
+
+        public void add(long n) { adder.add(n); }
+
+        public long get() { return adder.sum(); }
+
+        // na sekundę, z ostatniego próbkowania
+        public double rate() { return rate; }
+    }
+
+    // Histogram w stylu HdrHistogram: kubełki logarytmiczne (potęgi dwójki) podzielone liniowo na 16,
+    // więc błąd względny wartości to najwyżej 1/16. Zakres od 1 ns do Long.MAX_VALUE w 960 licznikach.
+    public static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            counts.getAndIncrement(index(nanos));
+            total.increment();
+            long m = max.get();
+            while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+        }
+
+        public long count() { return total.sum(); }
+
+        public long max() { return max.get(); }
+
+        // Górna granica kubełka, w którym wypada percentyl q (0..1)
+        public long percentile(double q) {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+            if (n == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= target) return Math.min(max.get(), i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE);
+            }
+            return max.get();
+        }
+
+        static int index(long v) {
+            if (v < SUB) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        static long lowerBound(int index) {
+            if (index < SUB) return index;
+            int exp = index / SUB + SUB_BITS - 1;
+            return (long) (SUB + index % SUB) << (exp - SUB_BITS);
+        }
+    }
+}
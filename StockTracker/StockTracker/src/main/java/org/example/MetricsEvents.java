@@ -0,0 +1,34 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Własne zdarzenia JFR - widoczne w nagraniu (-XX:StartFlightRecording) obok GC i wątków.
+// Gdy JFR nie nagrywa, commit() nic nie robi, a JIT usuwa tworzenie obiektu zdarzenia.
+final class MetricsEvents {
+    private MetricsEvents() { }
+
+    @Name("org.example.QuoteFetch")
+    @Label("Pobranie notowań")
+    @Category("StockTracker")
+    static final class QuoteFetch extends Event {
+        @Label("Provider")
+        String provider;
+        @Label("Liczba symboli")
+        int symbols;
+        @Label("Sukces")
+        boolean success;
+        @Label("Błąd")
+        String error;
+    }
+
+    @Name("org.example.FxBatch")
+    @Label("Paczka ticków na wątku FX")
+    @Category("StockTracker")
+    static final class FxBatch extends Event {
+        @Label("Liczba symboli")
+        int symbols;
+    }
+}
@@ -0,0 +1,140 @@
+package org.example;
+
+// Kwoty i ilości jako long ze stałą skalą - bez double w rozliczeniach i bez BigDecimal.
+// Kwota: grosze (1 PLN = 100). Ilość: 1e-8 sztuki (jak satoshi), więc ułamkowe akcje i BTC mają tę samą skalę.
+// Wartość transakcji = ilość * cena, zaokrąglona do grosza połówkami w górę - ta sama funkcja przy kupnie
+// i sprzedaży, więc gotówka + suma transakcji zgadza się co do grosza.
+public final class Money {
+    public static final long GROSZ = 100;
+    public static final long UNITS = 100_000_000L;
+
+    private static final int AMOUNT_DIGITS = 2;
+    private static final int QUANTITY_DIGITS = 8;
+
+    private Money() { }
+
+    // Cena z notowań (double) na grosze. Tylko na granicy z API/symulacją.
+    public static long ofPrice(double price) {
+        return Math.round(price * GROSZ);
+    }
+
+    public static double toDouble(long grosz) {
+        return (double) grosz / GROSZ;
+    }
+
+    public static double quantityToDouble(long units) {
+        return (double) units / UNITS;
+    }
+
+    // Wartość pozycji w groszach: units * grosz / UNITS
+    public static long value(long units, long priceGrosz) {
+        if (units >= 0 && priceGrosz >= 0) {
+            // typowy przypadek: iloczyn mieści się w long, a dzielenie przez stałą JIT zamienia na mnożenie
+            long p;
+            try {
+                p = Math.multiplyExact(units, priceGrosz);
+            } catch (ArithmeticException e) {
+                return mulDiv(units, priceGrosz, UNITS);
+            }
+            return (p + UNITS / 2) / UNITS;
+        }
+        return mulDiv(units, priceGrosz, UNITS);
+    }
+
+    // Ile jednostek da się kupić za kwotę (zaokrąglenie w dół - nigdy nie przekroczymy kwoty o więcej niż grosz)
+    public static long quantityFor(long grosz, long priceGrosz) {
+        if (priceGrosz <= 0) throw new ArithmeticException("Cena musi być dodatnia");
+        long q = grosz / priceGrosz;
+        long r = grosz % priceGrosz;
+        return Math.addExact(Math.multiplyExact(q, UNITS), Math.multiplyExact(r, UNITS) / priceGrosz);
+    }
+
+    public static long parseAmount(String text) {
+        return parse(text, AMOUNT_DIGITS);
+    }
+
+    public static long parseQuantity(String text) {
+        return parse(text, QUANTITY_DIGITS);
+    }
+
+    public static String format(long grosz) {
+        return format(grosz, AMOUNT_DIGITS, AMOUNT_DIGITS);
+    }
+
+    // Ilość z podaną liczbą miejsc po przecinku (obcięte, nie zaokrąglone)
+    public static String formatQuantity(long units, int digits) {
+        return format(units, QUANTITY_DIGITS, digits);
+    }
+
+    // a * b / d z zaokrągleniem połówek od zera. Iloczyn może przekroczyć long - wtedy dzielimy a na część
+    // całkowitą i resztę względem d.
+    static long mulDiv(long a, long b, long d) {
+        long p = a * b;
+        if (Math.multiplyHigh(a, b) == (p >> 63)) return divRound(p, d);
+        return Math.addExact(Math.multiplyExact(a / d, b), divRound(Math.multiplyExact(a % d, b), d));
+    }
+
+    private static long divRound(long p, long d) {
+        return p >= 0 ? (p + d / 2) / d : -((-p + d / 2) / d);
+    }
+
+    // "12,5" / "0.00012345" / "-3" -> liczba w jednostkach skali. Więcej cyfr po przecinku niż skala - obcinamy.
+    static long parse(String text, int digits) {
+        String s = text.trim();
+        int i = 0;
+        boolean negative = false;
+        if (i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) negative = s.charAt(i++) == '-';
+        long whole = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean anyDigit = false;
+        boolean afterPoint = false;
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.' || c == ',') {
+                if (afterPoint) throw new NumberFormatException("Niepoprawna liczba: " + text);
+                afterPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (!afterPoint) {
+                    if (whole > (Long.MAX_VALUE - 9) / 10) throw new NumberFormatException("Za duża liczba: " + text);
+                    whole = whole * 10 + (c - '0');
+                } else if (fractionDigits < digits) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                }
+            } else {
+                throw new NumberFormatException("Niepoprawna liczba: " + text);
+            }
+        }
+        if (!anyDigit) throw new NumberFormatException("Niepoprawna liczba: " + text);
+        for (; fractionDigits < digits; fractionDigits++) fraction *= 10;
+        long value;
+        try {
+            value = Math.addExact(Math.multiplyExact(whole, pow10(digits)), fraction);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Za duża liczba: " + text);
+        }
+        return negative ? -value : value;
+    }
+
+    private static String format(long value, int scaleDigits, int digits) {
+        long scale = pow10(scaleDigits);
+        long abs = Math.abs(value);
+        StringBuilder sb = new StringBuilder(24);
+        if (value < 0) sb.append('-');
+        sb.append(abs / scale);
+        if (digits > 0) {
+            sb.append('.');
+            String fraction = Long.toString(abs % scale + scale).substring(1);
+            sb.append(fraction, 0, digits);
+        }
+        return sb.toString();
+    }
+
+    private static long pow10(int n) {
+        long p = 1;
+        for (int i = 0; i < n; i++) p *= 10;
+        return p;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Kursy średnie NBP (tabela A). Symbol to kod waluty, np. "usd".
+// Jedno zapytanie o /tables/a/ daje kursy wszystkich walut naraz.
+public class NbpProvider extends HttpQuoteProvider {
+    public static final String BASE_URL = "http://api.nbp.pl";
+    private static final byte[] MID = FastQuoteParser.jsonKey("mid");
+    private static final byte[] CODE = FastQuoteParser.jsonKey("code");
+
+    public NbpProvider(HttpClient httpClient, String baseUrl, Duration timeout) {
+        super(httpClient, baseUrl, timeout);
+    }
+
+    @Override
+    public String name() { return "NBP"; }
+
+    @Override
+    public Map<String, Double> fetchQuotes(List<String> symbols) throws Exception {
+        Map<String, Double> rates = fetchTable();
+        for (String curr : symbols) {
+            if (rates.containsKey(curr)) continue;
+            // waluty spoza tabeli A - pojedyncze zapytanie
+            String url = baseUrl + "/api/exchangerates/rates/a/" + curr + "/?format=json";
+            rates.put(curr, get(url, body -> jsonNumber(body, MID)));
+        }
+        return rates;
+    }
+
+    public Map<String, Double> fetchTable() throws IOException, InterruptedException {
+        return get(baseUrl + "/api/exchangerates/tables/a/?format=json", body -> parseTable(body.array(), body.length()));
+    }
+
+    // Osobno od zapytania, żeby dało się zmierzyć parsowanie na gotowej odpowiedzi
+    public Map<String, Double> parseTable(byte[] buf, int len) throws IOException {
+        Map<String, Double> rates = new HashMap<>();
+        int pos = 0;
+        while ((pos = FastQuoteParser.indexOf(buf, pos, len, CODE)) >= 0) {
+            int start = pos + CODE.length;
+            while (start < len && (buf[start] == ' ' || buf[start] == '"')) start++;
+            int end = start;
+            while (end < len && buf[end] != '"') end++;
+            double mid = FastQuoteParser.jsonNumber(buf, end, len, MID);
+            if (mid > 0) rates.put(new String(buf, start, end - start, StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT), mid);
+            pos = end;
+        }
+        if (rates.isEmpty()) throw new IOException(name() + ": pusta tabela kursów");
+        return rates;
+    }
+}
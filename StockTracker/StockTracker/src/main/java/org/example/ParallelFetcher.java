@@ -0,0 +1,64 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Odpala wszystkie zapytania naraz (jeden wirtualny wątek na zapytanie) i czeka
+// najwyżej globalDeadline. Każde zadanie zwraca mapę symbol -> cena (pojedyncze
+// zapytanie albo cała paczka), wyniki są scalane. Co nie zdążyło - nie trafia do wyniku.
+public class ParallelFetcher {
+    // zapytania ucięte przez globalny termin / zakończone wyjątkiem - wcześniej ginęły bez śladu
+    private static final Metrics.Counter TIMEOUTS = Metrics.DEFAULT.counter("fetch.timeouts");
+    private static final Metrics.Counter ERRORS = Metrics.DEFAULT.counter("fetch.errors");
+
+    private final Duration globalDeadline;
+
+    public ParallelFetcher(Duration globalDeadline) {
+        this.globalDeadline = globalDeadline;
+    }
+
+    public static Callable<Map<String, Double>> single(String key, Callable<Double> task) {
+        return () -> Map.of(key, task.call());
+    }
+
+    public Map<String, Double> fetchAll(List<Callable<Map<String, Double>>> tasks) {
+        Map<String, Double> results = new HashMap<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Map<String, Double>>> futures = new ArrayList<>();
+            for (Callable<Map<String, Double>> task : tasks) futures.add(executor.submit(task));
+
+            long deadline = System.nanoTime() + globalDeadline.toNanos();
+            for (Future<Map<String, Double>> future : futures) {
+                long left = Math.max(0, deadline - System.nanoTime());
+                try {
+                    Map<String, Double> values = future.get(left, TimeUnit.NANOSECONDS);
+                    values.forEach((key, value) -> {
+                        if (value != null && value > 0) results.put(key, value);
+                    });
+                } catch (TimeoutException ex) {
+                    TIMEOUTS.increment();
+                    future.cancel(true);
+                } catch (ExecutionException ex) {
+                    ERRORS.increment();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // nie czekamy na maruderów - przerwanie anuluje ich HttpClient.send
+            executor.shutdownNow();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Portfel bez JavaFX: gotówka w groszach, ilość (Money.UNITS) i wartość każdej pozycji w tablicach
+// indeksowanych numerem z SymbolRegistry. Wycena przyrostowa jak dawniej w PortfolioValuation - tick
+// poprawia sumę o zmianę wartości jednej pozycji, tick symbolu spoza portfela to jedno porównanie.
+//
+// Tylko wątek konsumenta ticków (wątek FX albo pętla HeadlessMain) - tam, gdzie MarketEngine.drain.
+public class Portfolio {
+    private long cash;
+    private long[] quantities = new long[64];
+    private long[] values = new long[64];
+    // ostatni kurs każdego symbolu w groszach - nowa pozycja jest wyceniana po rynku, nie po cenie transakcji
+    private long[] prices = new long[64];
+    private int positions;
+    private long total;
+
+    public Portfolio(long cash) {
+        this.cash = cash;
+    }
+
+    public long cash() { return cash; }
+
+    // Suma wartości pozycji w groszach
+    public long total() { return total; }
+
+    public int positions() { return positions; }
+
+    public long quantity(int id) {
+        return id < quantities.length ? quantities[id] : 0;
+    }
+
+    public long value(int id) {
+        return id < values.length ? values[id] : 0;
+    }
+
+    public long price(int id) {
+        return id < prices.length ? prices[id] : 0;
+    }
+
+    // price w groszach, quantity w jednostkach Money.UNITS - rachunek dokładny, bez epsilonów.
+    // Zerowa albo ujemna ilość lub cena jest odrzucana - inaczej kupno mogłoby dodać gotówki.
+    public boolean buy(int id, long quantity, long price) {
+        if (quantity <= 0 || price <= 0) return false;
+        long cost = Money.value(quantity, price);
+        if (cash < cost) return false;
+        ensure(id);
+        cash -= cost;
+        if (quantities[id] == 0) positions++;
+        quantities[id] += quantity;
+        if (prices[id] == 0) prices[id] = price;
+        revalue(id);
+        return true;
+    }
+
+    public boolean sell(int id, long quantity, long price) {
+        if (quantity <= 0 || price <= 0 || quantity(id) < quantity) return false;
+        cash += Money.value(quantity, price);
+        quantities[id] -= quantity;
+        if (quantities[id] == 0) positions--;
+        revalue(id);
+        return true;
+    }
+
+    // Wołane dla każdego symbolu zmienionego w tej paczce ticków
+    public void onPrice(int id, long priceGrosz) {
+        ensure(id);
+        prices[id] = priceGrosz;
+        if (quantities[id] != 0) revalue(id);
+    }
+
+    private void revalue(int id) {
+        long v = Money.value(quantities[id], prices[id]);
+        total += v - values[id];
+        values[id] = v;
+    }
+
+    private void ensure(int id) {
+        if (id < quantities.length) return;
+        int capacity = Math.max(quantities.length * 2, id + 1);
+        quantities = Arrays.copyOf(quantities, capacity);
+        values = Arrays.copyOf(values, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+    }
+}
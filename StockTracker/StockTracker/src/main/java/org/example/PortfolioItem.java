@@ -0,0 +1,27 @@
+package org.example;
+
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.beans.property.SimpleLongProperty;
+
+public class PortfolioItem {
+    private final Stock stock;
+    // w jednostkach Money.UNITS (1e-8 szt.) - kopia ilości z Portfolio dla tabeli
+    private final SimpleLongProperty quantity;
+    // wartość w groszach - liczona przez Portfolio, StockApp przepisuje ją przy ticku
+    private final ReadOnlyLongWrapper value = new ReadOnlyLongWrapper(this, "value");
+
+    public PortfolioItem(Stock stock, long quantity) {
+        this.stock = stock;
+        this.quantity = new SimpleLongProperty(this, "quantity", quantity);
+    }
+
+    public Stock getStock() { return stock; }
+    public long getQuantity() { return quantity.get(); }
+    public void setQuantity(long q) { this.quantity.set(q); }
+    public SimpleLongProperty quantityProperty() { return quantity; }
+
+    public long getValue() { return value.get(); }
+    public ReadOnlyLongProperty valueProperty() { return value.getReadOnlyProperty(); }
+    void setValue(long v) { value.set(v); }
+}
@@ -0,0 +1,38 @@
+package org.example;
+
+// Historia cen jednego symbolu w buforze cyklicznym o stałej pojemności.
+// Czas i cena w tablicach prymitywów - dopisanie punktu niczego nie alokuje,
+// a najstarszy punkt jest nadpisywany zamiast usuwany z listy.
+public class PriceHistory {
+    private final long[] times;
+    private final double[] prices;
+    private int head = 0;
+    private int size = 0;
+
+    public PriceHistory(int capacity) {
+        times = new long[capacity];
+        prices = new double[capacity];
+    }
+
+    public void add(long epochMillis, double price) {
+        times[head] = epochMillis;
+        prices[head] = price;
+        head = (head + 1) % times.length;
+        if (size < times.length) size++;
+    }
+
+    public int size() { return size; }
+
+    public int capacity() { return times.length; }
+
+    // i = 0 to najstarszy zapamiętany punkt, size() - 1 najnowszy
+    public long time(int i) { return times[index(i)]; }
+
+    public double price(int i) { return prices[index(i)]; }
+
+    private int index(int i) {
+        int start = head - size;
+        if (start < 0) start += times.length;
+        return (start + i) % times.length;
+    }
+}
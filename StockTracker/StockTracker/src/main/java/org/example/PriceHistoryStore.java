@@ -0,0 +1,28 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Historie cen wszystkich symboli, indeksowane numerem z SymbolRegistry.
+// Bufor symbolu powstaje przy pierwszym ticku - symbole bez notowań nic nie kosztują.
+public class PriceHistoryStore {
+    private final int depth;
+    private PriceHistory[] histories = new PriceHistory[64];
+
+    public PriceHistoryStore(int depth) {
+        this.depth = depth;
+    }
+
+    public void add(int id, long epochMillis, double price) {
+        if (id >= histories.length) histories = Arrays.copyOf(histories, Math.max(histories.length * 2, id + 1));
+        PriceHistory h = histories[id];
+        if (h == null) histories[id] = h = new PriceHistory(depth);
+        h.add(epochMillis, price);
+    }
+
+    // null, jeśli dla symbolu nie było jeszcze żadnego ticku
+    public PriceHistory get(int id) {
+        return id >= 0 && id < histories.length ? histories[id] : null;
+    }
+
+    public int depth() { return depth; }
+}
@@ -0,0 +1,4 @@
+package org.example;
+
+// Notowanie z API (albo wartość zapasowa) - bez JavaFX, UI robi z niego Stock
+public record Quote(String symbol, double price) { }
@@ -0,0 +1,91 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Uporządkowana lista providerów dla danego instrumentu. Pyta kolejnych providerów tylko
+// o symbole, których poprzedni nie dostarczyli. Providera z otwartym bezpiecznikiem pomija
+// od razu, więc martwe API nie kosztuje pełnego timeoutu przy każdym odświeżeniu.
+//
+// Każde zapytanie trafia do metryk providera (http.<nazwa>, errors.<nazwa>) i do zdarzenia JFR;
+// fallback.<nazwa> liczy zapytania, w których dalszy provider uzupełnił braki poprzednich.
+public class QuoteChain {
+    private final Map<QuoteProvider, CircuitBreaker> providers = new LinkedHashMap<>();
+    private final Map<QuoteProvider, Stats> stats = new LinkedHashMap<>();
+
+    private record Stats(Metrics.Histogram latency, Metrics.Counter errors, Metrics.Counter fallbacks) { }
+
+    public QuoteChain(List<QuoteProvider> providers) {
+        this(providers, 3, 30_000);
+    }
+
+    public QuoteChain(List<QuoteProvider> providers, int failureThreshold, long openMillis) {
+        for (QuoteProvider p : providers) {
+            this.providers.put(p, new CircuitBreaker(failureThreshold, openMillis));
+            stats.put(p, new Stats(Metrics.DEFAULT.histogram("http." + p.name()), Metrics.DEFAULT.counter("errors." + p.name()),
+                    Metrics.DEFAULT.counter("fallback." + p.name())));
+        }
+    }
+
+    public Map<String, Double> fetch(List<String> symbols) {
+        Map<String, Double> result = new HashMap<>();
+        List<String> missing = new ArrayList<>(symbols);
+        boolean first = true;
+        for (Map.Entry<QuoteProvider, CircuitBreaker> e : providers.entrySet()) {
+            if (missing.isEmpty()) break;
+            CircuitBreaker breaker = e.getValue();
+            Stats s = stats.get(e.getKey());
+            boolean fallback = !first;
+            first = false;
+            if (!breaker.allowRequest()) continue;
+            MetricsEvents.QuoteFetch event = new MetricsEvents.QuoteFetch();
+            event.provider = e.getKey().name();
+            event.symbols = missing.size();
+            event.begin();
+            long start = System.nanoTime();
+            boolean recorded = false;
+            try {
+                Map<String, Double> quotes = e.getKey().fetchQuotes(missing);
+                breaker.recordSuccess();
+                recorded = true;
+                int before = result.size();
+                quotes.forEach((symbol, price) -> {
+                    if (price != null && price > 0) result.put(symbol, price);
+                });
+                missing.removeAll(result.keySet());
+                if (fallback && result.size() > before) s.fallbacks().increment();
+                event.success = true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                breaker.recordFailure();
+                recorded = true;
+                s.errors().increment();
+                event.error = ex.toString();
+                if (breaker.getState() == CircuitBreaker.State.OPEN) {
+                    System.err.println("[" + e.getKey().name() + "] wyłączony po błędzie: " + ex);
+                }
+            } finally {
+                // przerwanie (deadline ParallelFetcher) albo Error - bez tego próba HALF_OPEN zostałaby zajęta na zawsze
+                if (!recorded) breaker.recordAbort();
+                s.latency().record(System.nanoTime() - start);
+                event.commit();
+            }
+        }
+        return result;
+    }
+
+    public double fetch(String symbol) {
+        return fetch(List.of(symbol)).getOrDefault(symbol, -1.0);
+    }
+
+    public Map<String, CircuitBreaker.State> states() {
+        Map<String, CircuitBreaker.State> states = new LinkedHashMap<>();
+        providers.forEach((p, b) -> states.put(p.name(), b.getState()));
+        return states;
+    }
+}
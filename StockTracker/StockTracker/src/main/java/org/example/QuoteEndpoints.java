@@ -0,0 +1,13 @@
+package org.example;
+
+// Adresy bazowe wszystkich providerów - produkcyjne albo lokalnego StubQuoteServer.
+// binanceStream: WebSocket transakcji (CryptoStream), lokalnie StubStreamServer na osobnym porcie.
+public record QuoteEndpoints(String stooq, String nbp, String binance, String coinCap, String binanceStream) {
+
+    public static final QuoteEndpoints LIVE = new QuoteEndpoints(StooqBatchProvider.BASE_URL, NbpProvider.BASE_URL,
+            BinanceProvider.BASE_URL, CoinCapProvider.BASE_URL, CryptoStream.BASE_URL);
+
+    public static QuoteEndpoints local(String baseUrl, String streamUrl) {
+        return new QuoteEndpoints(baseUrl + "/stooq", baseUrl + "/nbp", baseUrl + "/binance", baseUrl + "/coincap", streamUrl);
+    }
+}
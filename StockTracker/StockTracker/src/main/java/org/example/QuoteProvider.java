@@ -0,0 +1,14 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+
+// Jedno źródło notowań (Stooq, NBP, Binance...). W odróżnieniu od starych metod fetch*
+// nie połyka błędów - rzuca wyjątek, a o tym co dalej decyduje QuoteChain.
+public interface QuoteProvider {
+    String name();
+
+    // Zwraca ceny symboli, które udało się pobrać. Może zwrócić więcej niż zapytano
+    // (np. NBP zwraca całą tabelę kursów jednym zapytaniem).
+    Map<String, Double> fetchQuotes(List<String> symbols) throws Exception;
+}
@@ -0,0 +1,113 @@
+package org.example;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+// Cache kursów NBP. Kurs średni zmienia się raz na dzień roboczy (tabela A ok. 11:45-12:15),
+// więc wpis żyje min(ttl, do najbliższej publikacji). Brakujący kurs ładuje całą tabelę jednym
+// zapytaniem, a równoległe wywołania czekają na to samo zapytanie zamiast wysyłać własne.
+// Święta pomijamy - w takie dni po prostu odświeżymy niepotrzebnie.
+public class RateCache {
+    private static final LocalTime PUBLICATION_TIME = LocalTime.of(12, 30);
+    private static final Metrics.Counter ERRORS = Metrics.DEFAULT.counter("ratecache.errors");
+
+    private record Entry(double rate, Instant expiresAt) { }
+
+    private final Function<List<String>, Map<String, Double>> loader;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Map<String, Double>>> inFlight = new AtomicReference<>();
+
+    public RateCache(Function<List<String>, Map<String, Double>> loader, Duration ttl, Clock clock) {
+        this.loader = loader;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    // Zwraca -1, jeśli kursu nie ma ani w cache, ani w NBP.
+    public double get(String code) {
+        return getAll(List.of(code)).getOrDefault(code, -1.0);
+    }
+
+    public Map<String, Double> getAll(List<String> codes) {
+        Map<String, Double> result = new HashMap<>();
+        Instant now = clock.instant();
+        boolean missing = false;
+        for (String code : codes) {
+            Entry e = entries.get(code);
+            if (e != null && now.isBefore(e.expiresAt())) result.put(code, e.rate());
+            else missing = true;
+        }
+        if (!missing) return result;
+
+        Map<String, Double> loaded = load(codes);
+        for (String code : codes) {
+            Double rate = loaded.get(code);
+            if (rate != null) result.put(code, rate);
+            else {
+                // NBP nie odpowiada - lepszy wczorajszy kurs niż żaden
+                Entry stale = entries.get(code);
+                if (stale != null) result.put(code, stale.rate());
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Double> load(List<String> codes) {
+        CompletableFuture<Map<String, Double>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, Double>> existing = inFlight.compareAndExchange(null, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (Exception e) {
+                return Map.of();
+            }
+        }
+        try {
+            Map<String, Double> loaded = loader.apply(codes);
+            Instant expiresAt = expiryFor(clock.instant());
+            loaded.forEach((code, rate) -> {
+                if (rate != null && rate > 0) entries.put(code, new Entry(rate, expiresAt));
+            });
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            ERRORS.increment();
+            mine.complete(Map.of());
+            return Map.of();
+        } catch (Error e) {
+            // czekający w join() dostają wyjątek (i pusty wynik) zamiast wisieć na zawsze
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    Instant expiryFor(Instant now) {
+        Instant byTtl = now.plus(ttl);
+        Instant byPublication = nextPublication(ZonedDateTime.ofInstant(now, clock.getZone())).toInstant();
+        return byTtl.isBefore(byPublication) ? byTtl : byPublication;
+    }
+
+    static ZonedDateTime nextPublication(ZonedDateTime now) {
+        ZonedDateTime candidate = now.with(PUBLICATION_TIME);
+        if (!candidate.isAfter(now)) candidate = candidate.plusDays(1);
+        while (candidate.getDayOfWeek() == DayOfWeek.SATURDAY || candidate.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            candidate = candidate.plusDays(1);
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,238 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Odtwarzanie zapisanych notowań (nasz dziennik ticków albo historyczny CSV ze Stooq) przez tę samą
+// ścieżkę co monitor - TickBuffer.publish. Prędkość 1x, 100x... albo "max" (bez czekania).
+// Co sekundę wypisuje osiągnięte ticki/s i opóźnienie wątku FX (czas od zlecenia runLater do wykonania).
+public class ReplayFeed {
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+    private static final LocalTime SESSION_CLOSE = LocalTime.of(17, 0);
+
+    private final SymbolRegistry registry;
+    private int size = 0;
+    private int[] ids = new int[1024];
+    private long[] times = new long[1024];
+    private double[] prices = new double[1024];
+    private double[] changes = new double[1024];
+
+    private final AtomicLong published = new AtomicLong();
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile long lastFxLagNanos;
+    private volatile long maxFxLagNanos;
+    private volatile boolean finished;
+    private volatile boolean stopped;
+    private volatile Thread thread;
+
+    public ReplayFeed(SymbolRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Symbole nieznane aplikacji są pomijane.
+    public void loadJournal(Path dir) throws IOException {
+        TickJournal.read(dir, (symbol, epochNanos, price, change) -> {
+            int id = registry.idOf(symbol);
+            if (id >= 0) add(id, epochNanos, price, change);
+        });
+    }
+
+    // Historyczny CSV ze Stooq (dzienny: Data,Otwarcie,...,Zamkniecie,Wolumen albo śródsesyjny z kolumną Czas).
+    // Nagłówek może być po polsku lub po angielsku.
+    public void loadStooqCsv(Path file, String symbol) throws IOException {
+        int id = registry.idOf(symbol);
+        if (id < 0) throw new IOException("Nieznany symbol: " + symbol);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = in.readLine();
+            if (header == null) return;
+            String[] names = header.toLowerCase(Locale.ROOT).split(",");
+            int dateCol = column(names, "data", "date");
+            int timeCol = column(names, "czas", "time");
+            int closeCol = column(names, "zamkniecie", "close");
+            if (dateCol < 0 || closeCol < 0) throw new IOException("Nieznany format CSV: " + header);
+
+            double previous = -1;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] cols = line.split(",");
+                if (cols.length <= Math.max(dateCol, closeCol)) continue;
+                try {
+                    LocalTime time = timeCol >= 0 && cols.length > timeCol ? LocalTime.parse(cols[timeCol]) : SESSION_CLOSE;
+                    ZonedDateTime at = ZonedDateTime.of(LocalDate.parse(cols[dateCol]), time, WARSAW);
+                    double close = Double.parseDouble(cols[closeCol]);
+                    double change = previous > 0 ? Math.round((close - previous) / previous * 10000.0) / 100.0 : 0.0;
+                    add(id, at.toEpochSecond() * 1_000_000_000L + at.getNano(), close, change);
+                    previous = close;
+                } catch (RuntimeException e) {
+                    // N/D albo ucięty wiersz
+                }
+            }
+        }
+    }
+
+    public int size() { return size; }
+
+    // speed <= 0 oznacza "najszybciej jak się da". fxExecutor to np. Platform::runLater - służy tylko do pomiaru opóźnienia FX.
+    public Thread start(TickBuffer ticks, double speed, Consumer<Runnable> fxExecutor) {
+        sortByTime();
+        Thread thread = new Thread(() -> run(ticks, speed, fxExecutor), "replay-feed");
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+        return thread;
+    }
+
+    // Przerywa odtwarzanie także w trakcie czekania na kolejny tick
+    public void stop() {
+        stopped = true;
+        Thread t = thread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    public long published() { return published.get(); }
+
+    public double ticksPerSecond() {
+        long elapsed = (finished ? endNanos : System.nanoTime()) - startNanos;
+        return elapsed > 0 ? published.get() * 1e9 / elapsed : 0;
+    }
+
+    public double fxLagMillis() { return lastFxLagNanos / 1e6; }
+
+    public double maxFxLagMillis() { return maxFxLagNanos / 1e6; }
+
+    public boolean isFinished() { return finished; }
+
+    public String statusText() {
+        return String.format("Replay %s: %d/%d ticków, %.0f ticków/s, lag FX %.1f ms (max %.1f ms)",
+                finished ? "zakończony" : "trwa", published.get(), size, ticksPerSecond(), fxLagMillis(), maxFxLagMillis());
+    }
+
+    private void run(TickBuffer ticks, double speed, Consumer<Runnable> fxExecutor) {
+        startNanos = System.nanoTime();
+        long nextReport = startNanos + 1_000_000_000L;
+        long nextProbe = startNanos;
+        long firstTime = size > 0 ? times[0] : 0;
+        for (int i = 0; i < size && !stopped; i++) {
+            if (speed > 0) {
+                long due = startNanos + (long) ((times[i] - firstTime) / speed);
+                long wait;
+                while (!stopped && (wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+                if (stopped) break;
+            }
+            if (ids[i] < ticks.size()) {
+                ticks.publish(ids[i], prices[i], changes[i]);
+                published.incrementAndGet();
+            }
+
+            long now = System.nanoTime();
+            if (now >= nextProbe) {
+                nextProbe = now + 100_000_000L;
+                probeFxLag(fxExecutor, now);
+            }
+            if (now >= nextReport) {
+                nextReport = now + 1_000_000_000L;
+                System.out.println(statusText());
+            }
+        }
+        endNanos = System.nanoTime();
+        finished = true;
+        System.out.println(statusText());
+    }
+
+    private void probeFxLag(Consumer<Runnable> fxExecutor, long postedAt) {
+        fxExecutor.accept(() -> {
+            long lag = System.nanoTime() - postedAt;
+            lastFxLagNanos = lag;
+            if (lag > maxFxLagNanos) maxFxLagNanos = lag;
+        });
+    }
+
+    private void add(int id, long epochNanos, double price, double change) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            times = Arrays.copyOf(times, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            changes = Arrays.copyOf(changes, capacity);
+        }
+        ids[size] = id;
+        times[size] = epochNanos;
+        prices[size] = price;
+        changes[size] = change;
+        size++;
+    }
+
+    // Kilka źródeł (np. kilka plików CSV) trzeba przepleść po czasie. Sortowanie raz, przed startem.
+    private void sortByTime() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) sorted = times[i - 1] <= times[i];
+        if (sorted) return;
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted((a, b) -> Long.compare(times[a], times[b])).mapToInt(Integer::intValue).toArray();
+        int[] newIds = new int[size];
+        long[] newTimes = new long[size];
+        double[] newPrices = new double[size];
+        double[] newChanges = new double[size];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            newIds[i] = ids[from];
+            newTimes[i] = times[from];
+            newPrices[i] = prices[from];
+            newChanges[i] = changes[from];
+        }
+        ids = newIds;
+        times = newTimes;
+        prices = newPrices;
+        changes = newChanges;
+    }
+
+    private static int column(String[] names, String polish, String english) {
+        for (int i = 0; i < names.length; i++) {
+            String n = names[i].trim();
+            if (n.equals(polish) || n.equals(english)) return i;
+        }
+        return -1;
+    }
+
+    // Parametr replay.source: "journal" albo lista plik=SYMBOL oddzielona przecinkami,
+    // np. -Dreplay.source=pko_d.csv=PKO_BP,kgh_d.csv=KGHM
+    public static ReplayFeed fromSpec(String spec, Path journalDir, SymbolRegistry registry) throws IOException {
+        ReplayFeed feed = new ReplayFeed(registry);
+        if (spec.equalsIgnoreCase("journal")) {
+            feed.loadJournal(journalDir);
+            return feed;
+        }
+        Map<Path, String> files = new HashMap<>();
+        for (String part : spec.split(",")) {
+            int eq = part.lastIndexOf('=');
+            if (eq <= 0) throw new IOException("Oczekiwano plik=SYMBOL, jest: " + part);
+            files.put(Path.of(part.substring(0, eq).trim()), part.substring(eq + 1).trim());
+        }
+        for (Map.Entry<Path, String> e : files.entrySet()) feed.loadStooqCsv(e.getKey(), e.getValue());
+        return feed;
+    }
+
+    // "max" -> 0 (bez czekania), "100" albo "100x" -> 100
+    public static double parseSpeed(String speed) {
+        String s = speed.trim().toLowerCase(Locale.ROOT);
+        if (s.equals("max")) return 0;
+        if (s.endsWith("x")) s = s.substring(0, s.length() - 1);
+        return Double.parseDouble(s);
+    }
+}
@@ -0,0 +1,188 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Monte Carlo VaR / expected shortfall portfela: skorelowany GBM (Cholesky macierzy korelacji),
+// wartość na koniec horyzontu liczona dokładnie jednym krokiem - dla GBM nie trzeba symulować po drodze.
+//
+// Ścieżki są dzielone na stałe bloki po BLOCK; każdy blok ma własny SplittableRandom z ziarnem wylosowanym
+// z ziarna głównego. Wynik nie zależy więc od liczby wątków ani kolejności wykonania, a sumy częściowe
+// składamy w kolejności bloków. Bloki liczy ForkJoinPool (RecursiveAction dzielący zakres na pół).
+//
+// Udziały pozycji w ES (alokacja Eulera) wymagają strat poszczególnych pozycji na ścieżkach z ogona.
+// Zamiast trzymać paths x pozycje liczb, drugi przebieg odtwarza te same ścieżki z tych samych ziaren.
+public class RiskEngine {
+    static final int BLOCK = 16_384;
+
+    // values w PLN, drift i volatility dzienne (np. 0.02 = 2% dziennie)
+    public record Model(String[] symbols, double[] values, double[] drift, double[] volatility, double[][] correlation) { }
+
+    public record Result(double valueAtRisk, double expectedShortfall, double[] contributions,
+                         int paths, double confidence, long elapsedNanos) { }
+
+    private final ForkJoinPool pool;
+
+    public RiskEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public RiskEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Result run(Model model, int paths, double horizonDays, double confidence, long seed) {
+        if (paths <= 0) throw new IllegalArgumentException("Liczba ścieżek musi być dodatnia");
+        if (confidence <= 0 || confidence >= 1) throw new IllegalArgumentException("Poziom ufności spoza (0, 1)");
+        long start = System.nanoTime();
+        int n = model.values().length;
+        double[][] chol = cholesky(model.correlation());
+        double[] driftT = new double[n];
+        double[] volT = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sigma = model.volatility()[i];
+            driftT[i] = (model.drift()[i] - 0.5 * sigma * sigma) * horizonDays;
+            volT[i] = sigma * Math.sqrt(horizonDays);
+        }
+        Paths generator = new Paths(model.values(), chol, driftT, volT);
+
+        int blocks = (paths + BLOCK - 1) / BLOCK;
+        long[] seeds = new long[blocks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int b = 0; b < blocks; b++) seeds[b] = root.nextLong();
+
+        // 1. przebieg: strata portfela na każdej ścieżce
+        double[] losses = new double[paths];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            SplittableRandom random = new SplittableRandom(seeds[b]);
+            double[] z = new double[n];
+            int end = Math.min(paths, (b + 1) * BLOCK);
+            for (int p = b * BLOCK; p < end; p++) losses[p] = generator.loss(random, z, null);
+        }));
+
+        int tail = Math.max(1, (int) Math.ceil((1 - confidence) * paths));
+        double[] sorted = losses.clone();
+        Arrays.parallelSort(sorted);
+        double var = sorted[paths - tail];
+
+        // 2. przebieg: te same ścieżki, sumujemy straty pozycji tylko tam, gdzie strata portfela >= VaR
+        double[][] tailByBlock = new double[blocks][];
+        int[] countByBlock = new int[blocks];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            SplittableRandom random = new SplittableRandom(seeds[b]);
+            double[] z = new double[n];
+            double[] positionLoss = new double[n];
+            double[] sums = new double[n];
+            int count = 0;
+            int end = Math.min(paths, (b + 1) * BLOCK);
+            for (int p = b * BLOCK; p < end; p++) {
+                generator.loss(random, z, positionLoss);
+                if (losses[p] < var) continue;
+                count++;
+                for (int i = 0; i < n; i++) sums[i] += positionLoss[i];
+            }
+            tailByBlock[b] = sums;
+            countByBlock[b] = count;
+        }));
+
+        double[] contributions = new double[n];
+        long count = 0;
+        for (int b = 0; b < blocks; b++) {
+            count += countByBlock[b];
+            for (int i = 0; i < n; i++) contributions[i] += tailByBlock[b][i];
+        }
+        double es = 0;
+        for (int i = 0; i < n; i++) {
+            contributions[i] /= count;
+            es += contributions[i];
+        }
+        return new Result(var, es, contributions, paths, confidence, System.nanoTime() - start);
+    }
+
+    // Stała korelacja rho między wszystkimi parami
+    public static double[][] constantCorrelation(int n, double rho) {
+        double[][] c = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(c[i], rho);
+            c[i][i] = 1.0;
+        }
+        return c;
+    }
+
+    // Dolnotrójkątne L, takie że L * L^T = c
+    static double[][] cholesky(double[][] c) {
+        int n = c.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = c[i][j];
+                for (int k = 0; k < j; k++) sum -= l[i][k] * l[j][k];
+                if (i == j) {
+                    if (sum <= 0) throw new IllegalArgumentException("Macierz korelacji nie jest dodatnio określona");
+                    l[i][i] = Math.sqrt(sum);
+                } else {
+                    l[i][j] = sum / l[j][j];
+                }
+            }
+        }
+        return l;
+    }
+
+    private static final class Paths {
+        final double[] values;
+        final double[][] chol;
+        final double[] driftT;
+        final double[] volT;
+
+        Paths(double[] values, double[][] chol, double[] driftT, double[] volT) {
+            this.values = values;
+            this.chol = chol;
+            this.driftT = driftT;
+            this.volT = volT;
+        }
+
+        // Jedna ścieżka: zawsze n losowań, więc oba przebiegi zużywają generator identycznie
+        double loss(SplittableRandom random, double[] z, double[] positionLoss) {
+            int n = values.length;
+            for (int i = 0; i < n; i++) z[i] = random.nextGaussian();
+            double loss = 0;
+            for (int i = 0; i < n; i++) {
+                double[] row = chol[i];
+                double e = 0;
+                for (int k = 0; k <= i; k++) e += row[k] * z[k];
+                double l = values[i] * (1.0 - Math.exp(driftT[i] + volT[i] * e));
+                if (positionLoss != null) positionLoss[i] = l;
+                loss += l;
+            }
+            return loss;
+        }
+    }
+
+    private interface BlockBody {
+        void run(int block);
+    }
+
+    private static final class Blocks extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final BlockBody body;
+
+        Blocks(int from, int to, BlockBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.run(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Blocks(from, mid, body), new Blocks(mid, to, body));
+        }
+    }
+}
@@ -2,38 +2,62 @@ package org.example;
 
 import javafx.beans.property.*;
 
+// Widok JavaFX na jeden wiersz InstrumentStore. Kurs i zmiana są w magazynie; właściwości powstają
+// dopiero przy pierwszym xxxProperty() - czyli gdy komórka tabeli pokaże ten wiersz. Instrument, którego
+// nikt nie ogląda, to kilka pól zamiast trzech właściwości z listenerami.
 public class Stock {
-    private final StringProperty symbol = new SimpleStringProperty();
-    private final DoubleProperty price = new SimpleDoubleProperty();
-    private final DoubleProperty change = new SimpleDoubleProperty();
-
-
-    private double alertMin = 0.0;
-    private double alertMax = 0.0;
+    private final int id;
+    private final InstrumentStore store;
+    private StringProperty symbol;
+    private DoubleProperty price;
+    private DoubleProperty change;
 
     public Stock(String symbol, double price) {
-        this.symbol.set(symbol);
-        this.price.set(price);
-        this.change.set(0.0);
+        this(SymbolRegistry.DEFAULT.intern(symbol), InstrumentStore.DEFAULT);
+        store.set(id, price, 0.0);
     }
 
-    public String getSymbol() { return symbol.get(); }
-    public StringProperty symbolProperty() { return symbol; }
+    // Widok na istniejący wpis magazynu (np. wypełniony przez MarketEngine)
+    public Stock(int id, InstrumentStore store) {
+        this.id = id;
+        this.store = store;
+    }
 
-    public double getPrice() { return price.get(); }
-    public DoubleProperty priceProperty() { return price; }
-    public void setPrice(double price) { this.price.set(price); }
+    public int getId() { return id; }
 
-    public double getChange() { return change.get(); }
-    public DoubleProperty changeProperty() { return change; }
-    public void setChange(double change) { this.change.set(change); }
+    public String getSymbol() { return SymbolRegistry.DEFAULT.symbol(id); }
+    public StringProperty symbolProperty() {
+        if (symbol == null) symbol = new SimpleStringProperty(this, "symbol", getSymbol());
+        return symbol;
+    }
 
+    public double getPrice() { return store.price(id); }
+    public DoubleProperty priceProperty() {
+        if (price == null) price = new SimpleDoubleProperty(this, "price", store.price(id));
+        return price;
+    }
+    public void setPrice(double price) {
+        store.setPrice(id, price);
+        if (this.price != null) this.price.set(price);
+    }
+    // Do rozliczeń - kurs zaokrąglony do grosza
+    public long getPriceGrosz() { return Money.ofPrice(store.price(id)); }
 
-    public double getAlertMin() { return alertMin; }
-    public void setAlertMin(double alertMin) { this.alertMin = alertMin; }
+    public double getChange() { return store.change(id); }
+    public DoubleProperty changeProperty() {
+        if (change == null) change = new SimpleDoubleProperty(this, "change", store.change(id));
+        return change;
+    }
+    public void setChange(double change) {
+        store.setChange(id, change);
+        if (this.change != null) this.change.set(change);
+    }
 
-    public double getAlertMax() { return alertMax; }
-    public void setAlertMax(double alertMax) { this.alertMax = alertMax; }
+    // Magazyn zmieniony z zewnątrz (MarketEngine.drain) - przepisuje wartości tylko do istniejących właściwości
+    public void refresh() {
+        if (price != null) price.set(store.price(id));
+        if (change != null) change.set(store.change(id));
+    }
 
     @Override
     public String toString() {
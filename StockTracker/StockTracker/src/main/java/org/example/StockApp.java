@@ -1,77 +1,115 @@
 package org.example;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 public class StockApp extends Application {
 
-    private final StockService stockService = new StockService();
+    // Rdzeń bez JavaFX (notowania, symulacja, alerty, zlecenia, portfel); tu tylko tabele, wykresy i okna
+    private MarketEngine engine;
     private final ObservableList<Stock> stockData = FXCollections.observableArrayList();
     private final ObservableList<Stock> currencyData = FXCollections.observableArrayList();
     private final ObservableList<PortfolioItem> myPortfolioData = FXCollections.observableArrayList();
 
-    private final Map<String, XYChart.Series<String, Number>> stockSeriesMap = new HashMap<>();
 
-    private LineChart<String, Number> liveChart;
+    // Nakładki wybranego symbolu, dopisywane razem z jego tickami
+    private final EnumMap<IndicatorEngine.Kind, PriceHistory> overlays = new EnumMap<>(IndicatorEngine.Kind.class);
+
+    private TimeSeriesChart liveChart;
+    // Widok świec przerysowywany najwyżej raz na klatkę
+    private CandleChart candleChart;
+    private long chartRange = 300_000L;
+    private boolean candlesDirty;
     private Stock selectedStock;
 
+    private final IdIndex<Stock> stockIndex = new IdIndex<>(stockData, Stock::getId);
+    private final IdIndex<Stock> currencyIndex = new IdIndex<>(currencyData, Stock::getId);
+    private final IdIndex<PortfolioItem> portfolioIndex = new IdIndex<>(myPortfolioData, p -> p.getStock().getId());
+
+    // Zdarzenia silnika z jednej klatki: ceny do tabel i wykresu, zlecenia i alerty do zbiorczych powiadomień
+    private final MarketEngine.Listener engineListener = new MarketEngine.Listener() {
+        @Override public void onTick(int id, double price, double change) { applyTick(id, price, change); }
+        @Override public void onFill(MatchingEngine.Order order, boolean accepted) { collectFill(order, accepted); }
+        @Override public void onAlert(AlertEngine.Fired fired) { collectAlert(fired); }
+    };
+    private final StringBuilder fillMessages = new StringBuilder();
+    private final StringBuilder alertMessages = new StringBuilder();
+    private int fillCount;
+    private int alertCount;
+    private final RiskEngine riskEngine = new RiskEngine();
+
+    // Metryki wątku FX - podgląd w zakładce "Diagnostyka" (ścieżkę ticków mierzy MarketEngine)
+    private static final Metrics.Histogram FX_BATCH = Metrics.DEFAULT.histogram("fx.batch");
+    private static final Metrics.Histogram FX_FRAME = Metrics.DEFAULT.histogram("fx.frame");
+    private static final Metrics.Histogram FX_LAG = Metrics.DEFAULT.histogram("fx.runlater.lag");
+    private Tab diagnosticsTab;
+    private TextArea diagnosticsArea;
+
+    // Parametry modelu ryzyka: zmienność dzienna i stała korelacja między instrumentami
+    private final double riskVolatility = Double.parseDouble(System.getProperty("risk.vol.daily", "0.02"));
+    private final double riskCryptoVolatility = Double.parseDouble(System.getProperty("risk.vol.crypto.daily", "0.045"));
+    private final double riskCorrelation = Double.parseDouble(System.getProperty("risk.correlation", "0.4"));
+
     // UI Elements
     private Label cashLabel;
     private Label totalValueLabel;
     private Label ownedLabel;
     private Label activeAlertLabel;
+    private Label replayLabel;
+    private Alert alertNotification;
+    private Alert fillNotification;
+    private Label openOrdersLabel;
 
     private RadioButton rbQuantity;
     private RadioButton rbValue;
     private TextField amountField;
+    private ComboBox<String> orderTypeBox;
+    private TextField limitPriceField;
+    private TextField stopPriceField;
 
     private TableView<Stock> marketTable;
     private TableView<Stock> currencyTable;
     private TableView<PortfolioItem> portfolioTable;
 
-
-    private double cash = 10000.00;
-
     private boolean isDarkMode = true;
     private Scene scene;
 
     @Override
     public void start(Stage primaryStage) {
 
-        showStartupDialog();
-
-
-        stockData.addAll(stockService.getStocks());
-        currencyData.addAll(stockService.getCurrencies());
+        long cash = showStartupDialog();
+        engine = new MarketEngine(new StockService(), cash, Platform::runLater);
+        engine.load();
+        // Stock to tylko widok na wiersz InstrumentStore - właściwości JavaFX dopiero dla widocznych wierszy
+        for (Quote q : engine.stocks()) stockData.add(new Stock(SymbolRegistry.DEFAULT.idOf(q.symbol()), engine.instruments()));
+        for (Quote q : engine.currencies()) currencyData.add(new Stock(SymbolRegistry.DEFAULT.idOf(q.symbol()), engine.instruments()));
 
         if (!stockData.isEmpty()) {
             selectedStock = stockData.get(0);
+            engine.track(selectedStock.getId());
         }
 
-        stockService.startMarketMonitor(stockData, currencyData);
-
 
         TabPane tabPane = new TabPane();
         tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
@@ -83,13 +121,21 @@ public class StockApp extends Application {
         portfolioTab.setContent(createPortfolioView());
 
 
-        tabPane.getTabs().addAll(marketTab, portfolioTab);
+        Tab riskTab = new Tab("Ryzyko");
+        riskTab.setContent(createRiskView());
+
+        diagnosticsTab = new Tab("Diagnostyka");
+        diagnosticsTab.setContent(createDiagnosticsView());
+
+        tabPane.getTabs().addAll(marketTab, portfolioTab, riskTab, diagnosticsTab);
 
         BorderPane root = new BorderPane();
         root.setCenter(tabPane);
         root.setBottom(createStatusBar());
 
-        startMarketSimulation();
+        startEngine();
+        startTickPipeline();
+        startMetrics();
 
         scene = new Scene(root, 1200, 800);
         applyTheme();
@@ -99,20 +145,41 @@ public class StockApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() throws Exception {
+        if (engine == null) return;
+        engine.close();
+        // raporty na wyjściu tylko przy włączonym logu metryk; na co dzień jest zakładka diagnostyki
+        if (Long.getLong("metrics.log.seconds", 0) > 0) {
+            System.out.print(engine.scheduler().report());
+            System.out.print(Metrics.DEFAULT.report());
+        }
+    }
+
+    // Źródło cen: nagranie (-Dreplay.source) albo monitor BTC + symulacja
+    private void startEngine() {
+        try {
+            engine.start();
+        } catch (IOException | NumberFormatException e) {
+            showAlert("Błąd odtwarzania", "Nie udało się wczytać nagrania: " + e.getMessage());
+        }
+    }
+
     // --- OKIENKO STARTOWE ---
-    private void showStartupDialog() {
+    private long showStartupDialog() {
         TextInputDialog dialog = new TextInputDialog("50000");
         dialog.setTitle("Konfiguracja Portfela");
         dialog.setHeaderText("Witaj w symulatorze giełdowym!");
         dialog.setContentText("Podaj kwotę startową (PLN):");
 
         Optional<String> result = dialog.showAndWait();
-        result.ifPresent(amount -> {
+        if (result.isPresent()) {
             try {
-                double value = Double.parseDouble(amount);
-                if (value > 0) this.cash = value;
+                long value = Money.parseAmount(result.get());
+                if (value > 0) return value;
             } catch (NumberFormatException e) { }
-        });
+        }
+        return 10000 * Money.GROSZ;
     }
 
     private void toggleTheme() {
@@ -208,9 +275,11 @@ public class StockApp extends Application {
             table.getSelectionModel().selectedItemProperty().addListener((o, old, newVal) -> {
                 if (newVal != null) {
                     selectedStock = newVal;
+                    engine.track(newVal.getId());
                     refreshLiveChart();
                     updateOwnedLabel();
                     updateAlertLabel();
+                    updateOrdersLabel();
                 }
             });
         } else {
@@ -221,23 +290,62 @@ public class StockApp extends Application {
     }
 
     private VBox createLiveChartSection() {
-        CategoryAxis xAxis = new CategoryAxis();
-        xAxis.setTickLabelsVisible(true);
-        xAxis.setLabel("Czas (Live)");
-        NumberAxis yAxis = new NumberAxis();
-        yAxis.setAutoRanging(true);
-        yAxis.setForceZeroInRange(false);
-        liveChart = new LineChart<>(xAxis, yAxis);
-        liveChart.setTitle("Wykres");
-        liveChart.setAnimated(false);
-        liveChart.setCreateSymbols(false);
-        liveChart.setLegendVisible(false);
-        VBox box = new VBox(liveChart);
+        liveChart = new TimeSeriesChart();
+        liveChart.setRange(chartRange);
+        refreshLiveChart();
+
+        // Nakładki wskaźników - RSI ma inną skalę, więc trafia do tytułu wykresu zamiast na oś cen
+        HBox overlayBox = new HBox(10, new Label("Nakładki:"));
+        overlayBox.setAlignment(Pos.CENTER_LEFT);
+        addOverlayToggle(overlayBox, "SMA " + engine.indicators().period(), IndicatorEngine.Kind.SMA);
+        addOverlayToggle(overlayBox, "EMA " + engine.indicators().period(), IndicatorEngine.Kind.EMA);
+        addOverlayToggle(overlayBox, "Bollinger", IndicatorEngine.Kind.BOLLINGER_UPPER, IndicatorEngine.Kind.BOLLINGER_LOWER);
+        addOverlayToggle(overlayBox, "VWAP", IndicatorEngine.Kind.VWAP);
+        addOverlayToggle(overlayBox, "Min/Max", IndicatorEngine.Kind.MIN, IndicatorEngine.Kind.MAX);
+
+        // Zakres wspólny dla obu widoków; w widoku świecowym wybiera też rozdzielczość,
+        // tak żeby na ekranie było najwyżej kilkaset świec
+        candleChart = new CandleChart();
+        candleChart.setVisible(false);
+        CheckBox candleToggle = new CheckBox("Świece");
+        ComboBox<String> rangeBox = new ComboBox<>(FXCollections.observableArrayList("5 min", "1 h", "1 dzień", "1 tydzień"));
+        rangeBox.getSelectionModel().select("5 min");
+        rangeBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            chartRange = switch (newVal) {
+                case "1 h" -> 3_600_000L;
+                case "1 dzień" -> 86_400_000L;
+                case "1 tydzień" -> 7 * 86_400_000L;
+                default -> 300_000L;
+            };
+            liveChart.setRange(chartRange);
+            candlesDirty = true;
+        });
+        candleToggle.selectedProperty().addListener((obs, oldVal, selected) -> {
+            candleChart.setVisible(selected);
+            liveChart.setVisible(!selected);
+            candlesDirty = true;
+        });
+        overlayBox.getChildren().addAll(new Separator(Orientation.VERTICAL), candleToggle, rangeBox);
+
+        StackPane charts = new StackPane(liveChart, candleChart);
+        VBox box = new VBox(5, overlayBox, charts);
         box.setPadding(new Insets(0, 10, 0, 10));
-        VBox.setVgrow(liveChart, Priority.ALWAYS);
+        VBox.setVgrow(charts, Priority.ALWAYS);
         return box;
     }
 
+    private void addOverlayToggle(HBox box, String label, IndicatorEngine.Kind... kinds) {
+        CheckBox toggle = new CheckBox(label);
+        toggle.selectedProperty().addListener((obs, oldVal, selected) -> {
+            for (IndicatorEngine.Kind kind : kinds) {
+                if (selected) overlays.put(kind, new PriceHistory(engine.history().depth()));
+                else overlays.remove(kind);
+            }
+            refreshLiveChart();
+        });
+        box.getChildren().add(toggle);
+    }
+
     private VBox createRightPanel() {
         Label tradeTitle = new Label("Panel Handlu");
         tradeTitle.setStyle("-fx-font-weight: bold;");
@@ -272,7 +380,27 @@ public class StockApp extends Application {
         HBox tradeBtns = new HBox(5, buyBtn, sellBtn);
         tradeBtns.setAlignment(Pos.CENTER);
 
-        VBox tradeBox = new VBox(10, tradeTitle, ownedLabel, new Separator(), radioBox, amountField, tradeBtns);
+        // Zlecenia oczekujące: limit, stop, stop-limit - realizowane przez ticki
+        orderTypeBox = new ComboBox<>(FXCollections.observableArrayList("Rynkowe", "Limit", "Stop", "Stop-Limit"));
+        orderTypeBox.getSelectionModel().selectFirst();
+        orderTypeBox.setMaxWidth(Double.MAX_VALUE);
+        limitPriceField = new TextField();
+        limitPriceField.setPromptText("Cena limitu");
+        stopPriceField = new TextField();
+        stopPriceField.setPromptText("Cena aktywacji (stop)");
+        limitPriceField.disableProperty().bind(orderTypeBox.valueProperty().isEqualTo("Rynkowe").or(orderTypeBox.valueProperty().isEqualTo("Stop")));
+        stopPriceField.disableProperty().bind(orderTypeBox.valueProperty().isEqualTo("Rynkowe").or(orderTypeBox.valueProperty().isEqualTo("Limit")));
+        openOrdersLabel = new Label("Brak zleceń");
+        openOrdersLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #aaa;");
+        Button cancelOrdersBtn = new Button("Anuluj zlecenia");
+        cancelOrdersBtn.setMaxWidth(Double.MAX_VALUE);
+        cancelOrdersBtn.setOnAction(e -> {
+            if (selectedStock != null) engine.orders().cancelAll(selectedStock.getId());
+            updateOrdersLabel();
+        });
+
+        VBox tradeBox = new VBox(10, tradeTitle, ownedLabel, new Separator(), radioBox, amountField,
+                orderTypeBox, limitPriceField, stopPriceField, tradeBtns, openOrdersLabel, cancelOrdersBtn);
         tradeBox.setStyle("-fx-border-color: #555; -fx-padding: 10; -fx-border-radius: 5;");
 
         Label alertTitle = new Label("Alerty Cenowe");
@@ -283,10 +411,21 @@ public class StockApp extends Application {
         minPriceField.setPromptText("Alarm spadku");
         TextField maxPriceField = new TextField();
         maxPriceField.setPromptText("Alarm wzrostu");
-        Button setAlertBtn = new Button("Zapisz Alerty");
+        TextField movePctField = new TextField();
+        movePctField.setPromptText("Np. 5 (%)");
+        TextField crossField = new TextField();
+        crossField.setPromptText("Poziom ceny");
+        Button setAlertBtn = new Button("Dodaj Alerty");
         setAlertBtn.setMaxWidth(Double.MAX_VALUE);
-        setAlertBtn.setOnAction(e -> handleSetAlerts(minPriceField, maxPriceField));
-        VBox alertBox = new VBox(10, alertTitle, activeAlertLabel, new Label("Min:"), minPriceField, new Label("Max:"), maxPriceField, setAlertBtn);
+        setAlertBtn.setOnAction(e -> handleSetAlerts(minPriceField, maxPriceField, movePctField, crossField));
+        Button clearAlertBtn = new Button("Usuń alerty");
+        clearAlertBtn.setMaxWidth(Double.MAX_VALUE);
+        clearAlertBtn.setOnAction(e -> {
+            if (selectedStock != null) engine.alerts().removeAll(selectedStock.getId());
+            updateAlertLabel();
+        });
+        VBox alertBox = new VBox(10, alertTitle, activeAlertLabel, new Label("Min:"), minPriceField, new Label("Max:"), maxPriceField,
+                new Label("Ruch %:"), movePctField, new Label("Przecięcie:"), crossField, setAlertBtn, clearAlertBtn);
         alertBox.setStyle("-fx-border-color: #555; -fx-padding: 10; -fx-border-radius: 5;");
 
         VBox mainRight = new VBox(20, tradeBox, alertBox);
@@ -301,28 +440,27 @@ public class StockApp extends Application {
         portfolioTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
         TableColumn<PortfolioItem, String> symCol = new TableColumn<>("Symbol");
         symCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getStock().getSymbol()));
-        TableColumn<PortfolioItem, Double> qtyCol = new TableColumn<>("Ilość");
+        TableColumn<PortfolioItem, Long> qtyCol = new TableColumn<>("Ilość");
         qtyCol.setCellValueFactory(cell -> cell.getValue().quantityProperty().asObject());
         qtyCol.setCellFactory(col -> new TableCell<>() {
-            @Override protected void updateItem(Double item, boolean empty) {
+            @Override protected void updateItem(Long item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) setText(null);
                 else {
-                    setText(String.format("%.4f", item));
+                    setText(Money.formatQuantity(item, 4));
                     setTextFill(isDarkMode ? Color.WHITE : Color.BLACK);
                 }
             }
         });
-        TableColumn<PortfolioItem, Double> valCol = new TableColumn<>("Wartość");
-        valCol.setCellValueFactory(cell -> new SimpleDoubleProperty(
-                cell.getValue().getQuantity() * cell.getValue().getStock().getPrice()
-        ).asObject());
+        TableColumn<PortfolioItem, Long> valCol = new TableColumn<>("Wartość");
+        // wartość liczy Portfolio w MarketEngine.drain, applyTick przepisuje ją do wiersza przy zmianie kursu
+        valCol.setCellValueFactory(cell -> cell.getValue().valueProperty().asObject());
         valCol.setCellFactory(col -> new TableCell<>() {
-            @Override protected void updateItem(Double item, boolean empty) {
+            @Override protected void updateItem(Long item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) setText(null);
                 else {
-                    setText(String.format("%.2f PLN", item));
+                    setText(Money.format(item) + " PLN");
                     setTextFill(isDarkMode ? Color.WHITE : Color.BLACK);
                 }
             }
@@ -333,15 +471,125 @@ public class StockApp extends Application {
         return box;
     }
 
+    private record RiskRow(String symbol, double value, double contribution) { }
+
+    private VBox createRiskView() {
+        TextField pathsField = new TextField("1000000");
+        pathsField.setPrefWidth(100);
+        ComboBox<Integer> horizonBox = new ComboBox<>(FXCollections.observableArrayList(1, 10));
+        horizonBox.getSelectionModel().selectFirst();
+        ComboBox<String> confidenceBox = new ComboBox<>(FXCollections.observableArrayList("95%", "99%"));
+        confidenceBox.getSelectionModel().select(1);
+        TextField seedField = new TextField("42");
+        seedField.setPrefWidth(80);
+        Button runBtn = new Button("Oblicz");
+        HBox controls = new HBox(10, new Label("Ścieżki:"), pathsField, new Label("Horyzont (dni):"), horizonBox,
+                new Label("Poziom:"), confidenceBox, new Label("Ziarno:"), seedField, runBtn);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        Label summary = new Label("Portfel pusty albo nie policzony");
+        summary.setStyle("-fx-font-weight: bold;");
+
+        TableView<RiskRow> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        TableColumn<RiskRow, String> symCol = new TableColumn<>("Symbol");
+        symCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().symbol()));
+        TableColumn<RiskRow, String> valCol = new TableColumn<>("Wartość");
+        valCol.setCellValueFactory(cell -> new SimpleStringProperty(String.format("%.2f PLN", cell.getValue().value())));
+        TableColumn<RiskRow, String> contribCol = new TableColumn<>("Udział w ES");
+        contribCol.setCellValueFactory(cell -> new SimpleStringProperty(String.format("%.2f PLN", cell.getValue().contribution())));
+        table.getColumns().setAll(List.of(symCol, valCol, contribCol));
+
+        runBtn.setOnAction(e -> {
+            if (myPortfolioData.isEmpty()) {
+                summary.setText("Portfel pusty - nie ma czego liczyć");
+                return;
+            }
+            int paths;
+            long seed;
+            try {
+                paths = Integer.parseInt(pathsField.getText().trim());
+                seed = Long.parseLong(seedField.getText().trim());
+            } catch (NumberFormatException ex) {
+                showAlert("Błąd", "Wpisz poprawną liczbę!");
+                return;
+            }
+            RiskEngine.Model model = riskModel();
+            int horizon = horizonBox.getValue();
+            double confidence = confidenceBox.getValue().equals("95%") ? 0.95 : 0.99;
+            runBtn.setDisable(true);
+            summary.setText("Liczenie...");
+            // Obliczenia na ForkJoinPool - wątek FX tylko odbiera wynik
+            CompletableFuture.supplyAsync(() -> riskEngine.run(model, paths, horizon, confidence, seed))
+                    .whenComplete((result, error) -> Platform.runLater(() -> {
+                        runBtn.setDisable(false);
+                        if (error != null) {
+                            summary.setText("Błąd: " + error.getCause().getMessage());
+                            return;
+                        }
+                        summary.setText(String.format("VaR %s %dd: %.2f PLN   ES: %.2f PLN   (%,d ścieżek, %d ms)",
+                                confidenceBox.getValue(), horizon, result.valueAtRisk(), result.expectedShortfall(),
+                                result.paths(), result.elapsedNanos() / 1_000_000));
+                        List<RiskRow> rows = new ArrayList<>();
+                        for (int i = 0; i < model.symbols().length; i++) {
+                            rows.add(new RiskRow(model.symbols()[i], model.values()[i], result.contributions()[i]));
+                        }
+                        table.getItems().setAll(rows);
+                    }));
+        });
+
+        VBox box = new VBox(10, new Label("Ryzyko portfela (Monte Carlo, skorelowany GBM)"), controls, summary, table);
+        box.setPadding(new Insets(20));
+        VBox.setVgrow(table, Priority.ALWAYS);
+        return box;
+    }
+
+    private VBox createDiagnosticsView() {
+        diagnosticsArea = new TextArea();
+        diagnosticsArea.setEditable(false);
+        diagnosticsArea.setStyle("-fx-font-family: monospace;");
+        Button dumpBtn = new Button("Zrzut do logu");
+        dumpBtn.setOnAction(e -> System.out.print(Metrics.DEFAULT.report() + engine.scheduler().report()));
+        VBox box = new VBox(10, new Label("Metryki (odświeżane co sekundę, czasy w ms)"), diagnosticsArea, dumpBtn);
+        box.setPadding(new Insets(20));
+        VBox.setVgrow(diagnosticsArea, Priority.ALWAYS);
+        return box;
+    }
+
+    // Migawka pozycji na wątku FX; BTC dostaje wyższą zmienność i słabą korelację z resztą
+    private RiskEngine.Model riskModel() {
+        int n = myPortfolioData.size();
+        String[] symbols = new String[n];
+        double[] values = new double[n];
+        double[] vols = new double[n];
+        boolean[] crypto = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            PortfolioItem item = myPortfolioData.get(i);
+            symbols[i] = item.getStock().getSymbol();
+            values[i] = Money.toDouble(item.getValue());
+            crypto[i] = symbols[i].equals("BITCOIN");
+            vols[i] = crypto[i] ? riskCryptoVolatility : riskVolatility;
+        }
+        double[][] correlation = RiskEngine.constantCorrelation(n, riskCorrelation);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && (crypto[i] || crypto[j])) correlation[i][j] = 0.1;
+            }
+        }
+        return new RiskEngine.Model(symbols, values, new double[n], vols, correlation);
+    }
+
     private HBox createStatusBar() {
         cashLabel = new Label();
         totalValueLabel = new Label();
+        replayLabel = new Label();
+        replayLabel.setStyle("-fx-text-fill: #aaa;");
         updateFinanceLabels();
         Button themeBtn = new Button("Motyw ☀/☾");
         themeBtn.setOnAction(e -> toggleTheme());
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
-        HBox box = new HBox(20, cashLabel, totalValueLabel, spacer, themeBtn);
+        HBox box = new HBox(20, cashLabel, totalValueLabel, replayLabel, spacer, themeBtn);
         box.setPadding(new Insets(10));
         box.setAlignment(Pos.CENTER_LEFT);
         box.setStyle("-fx-background-color: #333333;");
@@ -352,12 +600,19 @@ public class StockApp extends Application {
     private void handleTransaction(boolean isBuying) {
         if (selectedStock == null) return;
         try {
-            String input = amountField.getText().replace(",", ".");
-            double value = Double.parseDouble(input);
+            String input = amountField.getText();
+            // ilość w jednostkach Money.UNITS albo kwota w groszach
+            long value = rbQuantity.isSelected() ? Money.parseQuantity(input) : Money.parseAmount(input);
             if (value <= 0) return;
-            double quantityToTrade = 0;
+            String orderType = orderTypeBox.getValue();
+            if (!orderType.equals("Rynkowe")) {
+                placeOrder(isBuying, orderType, value);
+                return;
+            }
+            long quantityToTrade = 0;
             if (rbQuantity.isSelected()) quantityToTrade = value;
-            else quantityToTrade = value / selectedStock.getPrice();
+            else quantityToTrade = Money.quantityFor(value, selectedStock.getPriceGrosz());
+            if (quantityToTrade <= 0) return;
 
             if (isBuying) buyStock(selectedStock, quantityToTrade);
             else sellStock(selectedStock, quantityToTrade);
@@ -366,123 +621,274 @@ public class StockApp extends Application {
         } catch (NumberFormatException ex) { showAlert("Błąd", "Wpisz poprawną liczbę!"); }
     }
 
-    private void buyStock(Stock stock, double quantity) {
-        double cost = stock.getPrice() * quantity;
-        if (cash >= cost) {
-            cash -= cost;
-            PortfolioItem existing = findPortfolioItem(stock.getSymbol());
-            if (existing != null) existing.setQuantity(existing.getQuantity() + quantity);
-            else myPortfolioData.add(new PortfolioItem(stock, quantity));
-            updateFinanceLabels();
-            showAlert("Sukces", String.format("Kupiłeś %.4f szt. %s", quantity, stock.getSymbol()));
+    // Gotówkę i akcje sprawdzamy dopiero przy realizacji - zlecenie bez pokrycia zostanie odrzucone
+    private void placeOrder(boolean isBuying, String orderType, long value) {
+        MatchingEngine.Type type = switch (orderType) {
+            case "Limit" -> MatchingEngine.Type.LIMIT;
+            case "Stop" -> MatchingEngine.Type.STOP;
+            default -> MatchingEngine.Type.STOP_LIMIT;
+        };
+        long limit = type == MatchingEngine.Type.STOP ? 0 : Money.parseAmount(limitPriceField.getText());
+        long stop = type == MatchingEngine.Type.LIMIT ? 0 : Money.parseAmount(stopPriceField.getText());
+        if ((type != MatchingEngine.Type.STOP && limit <= 0) || (type != MatchingEngine.Type.LIMIT && stop <= 0)) {
+            showAlert("Błąd", "Podaj cenę zlecenia!");
+            return;
+        }
+        long quantity = rbQuantity.isSelected() ? value : Money.quantityFor(value, type == MatchingEngine.Type.STOP ? stop : limit);
+        if (quantity <= 0) return;
+        engine.orders().place(selectedStock.getId(), isBuying ? MatchingEngine.Side.BUY : MatchingEngine.Side.SELL,
+                type, quantity, limit, stop);
+        amountField.clear();
+        limitPriceField.clear();
+        stopPriceField.clear();
+        updateOrdersLabel();
+    }
+
+    private void buyStock(Stock stock, long quantity) {
+        if (engine.portfolio().buy(stock.getId(), quantity, stock.getPriceGrosz())) {
+            updatePosition(stock);
+            showAlert("Sukces", "Kupiłeś " + Money.formatQuantity(quantity, 4) + " szt. " + stock.getSymbol());
         } else showAlert("Brak środków", "Nie masz wystarczająco gotówki!");
     }
 
-    private void sellStock(Stock stock, double quantity) {
-        PortfolioItem item = findPortfolioItem(stock.getSymbol());
-        if (item != null && item.getQuantity() >= (quantity - 0.0001)) {
-            cash += stock.getPrice() * quantity;
-            double newQty = item.getQuantity() - quantity;
-            if (newQty < 0.0001) myPortfolioData.remove(item);
-            else item.setQuantity(newQty);
-            updateFinanceLabels();
-            showAlert("Sukces", String.format("Sprzedałeś %.4f szt. %s", quantity, stock.getSymbol()));
+    private void sellStock(Stock stock, long quantity) {
+        if (engine.portfolio().sell(stock.getId(), quantity, stock.getPriceGrosz())) {
+            updatePosition(stock);
+            showAlert("Sukces", "Sprzedałeś " + Money.formatQuantity(quantity, 4) + " szt. " + stock.getSymbol());
         } else showAlert("Błąd", "Nie masz tyle akcji!");
     }
 
-    private void handleSetAlerts(TextField minField, TextField maxField) {
+    // Wiersz tabeli portfela odwzorowuje pozycję z Portfolio - dodawany i usuwany razem z nią
+    private void updatePosition(Stock stock) {
+        Portfolio portfolio = engine.portfolio();
+        int id = stock.getId();
+        long quantity = portfolio.quantity(id);
+        PortfolioItem item = portfolioIndex.get(id);
+        if (quantity == 0) {
+            if (item != null) myPortfolioData.remove(item);
+        } else {
+            if (item == null) myPortfolioData.add(item = new PortfolioItem(stock, quantity));
+            else item.setQuantity(quantity);
+            item.setValue(portfolio.value(id));
+        }
+        updateFinanceLabels();
+    }
+
+    // Zlecenie jest już rozliczone w portfelu przez silnik - tu tylko tabela i treść powiadomienia
+    private void collectFill(MatchingEngine.Order o, boolean accepted) {
+        Stock stock = stockIndex.get(o.getSymbolId());
+        if (stock == null) return;
+        updatePosition(stock);
+        if (fillCount++ >= 20) return;
+        boolean buy = o.getSide() == MatchingEngine.Side.BUY;
+        if (!accepted) fillMessages.append(String.format("Odrzucone #%d %s: %s\n", o.getId(), stock.getSymbol(), buy ? "brak gotówki" : "brak akcji"));
+        else fillMessages.append(buy ? "Kupiono " : "Sprzedano ").append(Money.formatQuantity(o.getQuantity(), 4))
+                .append(" szt. ").append(stock.getSymbol()).append(" po ").append(Money.format(o.getFillPrice()))
+                .append(" (#").append(o.getId()).append(")\n");
+    }
+
+    // Zlecenia zrealizowane od ostatniej klatki w jednym zbiorczym powiadomieniu
+    private void showFills() {
+        if (fillCount > 20) fillMessages.append("... i ").append(fillCount - 20).append(" więcej\n");
+        String msg = fillMessages.toString();
+        fillMessages.setLength(0);
+        fillCount = 0;
+
+        if (fillNotification == null) {
+            fillNotification = new Alert(Alert.AlertType.INFORMATION);
+            fillNotification.setTitle("Zlecenia");
+            fillNotification.setHeaderText(null);
+            fillNotification.setOnHidden(e -> fillNotification.setContentText(""));
+        }
+        String previous = fillNotification.isShowing() ? fillNotification.getContentText() : "";
+        fillNotification.setContentText(msg + previous);
+        if (!fillNotification.isShowing()) fillNotification.show();
+        updateOwnedLabel();
+        updateOrdersLabel();
+    }
+
+    private void updateOrdersLabel() {
+        if (selectedStock == null) return;
+        String msg = String.join("\n", engine.orders().describe(selectedStock.getId()));
+        openOrdersLabel.setText(msg.isEmpty() ? "Brak zleceń" : msg);
+    }
+
+    // Każde zapisanie dokłada nowe alerty - na jeden symbol może ich być dowolnie wiele
+    private void handleSetAlerts(TextField minField, TextField maxField, TextField moveField, TextField crossField) {
+        if (selectedStock == null) return;
         try {
-            double min = minField.getText().isEmpty() ? 0 : Double.parseDouble(minField.getText());
-            double max = maxField.getText().isEmpty() ? 0 : Double.parseDouble(maxField.getText());
-            selectedStock.setAlertMin(min);
-            selectedStock.setAlertMax(max);
+            int id = selectedStock.getId();
+            double current = engine.ticks().price(id);
+            if (!minField.getText().isEmpty()) engine.alerts().add(id, AlertEngine.Type.BELOW, Double.parseDouble(minField.getText()), current);
+            if (!maxField.getText().isEmpty()) engine.alerts().add(id, AlertEngine.Type.ABOVE, Double.parseDouble(maxField.getText()), current);
+            if (!moveField.getText().isEmpty()) engine.alerts().add(id, AlertEngine.Type.PERCENT_MOVE, Double.parseDouble(moveField.getText()), current);
+            if (!crossField.getText().isEmpty()) engine.alerts().add(id, AlertEngine.Type.CROSSING, Double.parseDouble(crossField.getText()), current);
             updateAlertLabel();
-            minField.clear(); maxField.clear();
+            minField.clear(); maxField.clear(); moveField.clear(); crossField.clear();
         } catch (Exception e) { }
     }
 
     private void updateAlertLabel() {
         if (selectedStock == null) return;
-        String msg = "";
-        if (selectedStock.getAlertMin() > 0) msg += "Spadek < " + selectedStock.getAlertMin() + "\n";
-        if (selectedStock.getAlertMax() > 0) msg += "Wzrost > " + selectedStock.getAlertMax();
+        String msg = String.join("\n", engine.alerts().describe(selectedStock.getId()));
         activeAlertLabel.setText(msg.isEmpty() ? "Brak ustawień" : msg);
     }
 
-    private void checkAlerts(Stock s) {
-        if (s.getAlertMin() > 0 && s.getPrice() < s.getAlertMin()) {
-            String msg = "ALERT! " + s.getSymbol() + " < " + s.getAlertMin();
-            Platform.runLater(() -> new Alert(Alert.AlertType.WARNING, msg).show());
-            s.setAlertMin(0); Platform.runLater(this::updateAlertLabel);
-        }
-        if (s.getAlertMax() > 0 && s.getPrice() > s.getAlertMax()) {
-            String msg = "SUKCES! " + s.getSymbol() + " > " + s.getAlertMax();
-            Platform.runLater(() -> new Alert(Alert.AlertType.INFORMATION, msg).show());
-            s.setAlertMax(0); Platform.runLater(this::updateAlertLabel);
-        }
+    // Wszystkie alerty odpalone od ostatniej klatki w jednym powiadomieniu. Jeśli okno jest
+    // jeszcze otwarte, dopisujemy do niego zamiast otwierać kolejne.
+    private void collectAlert(AlertEngine.Fired f) {
+        if (alertCount++ < 20) alertMessages.append(AlertEngine.message(f, SymbolRegistry.DEFAULT.symbol(f.symbolId()))).append('\n');
     }
 
-    private PortfolioItem findPortfolioItem(String symbol) {
-        return myPortfolioData.stream().filter(p -> p.getStock().getSymbol().equals(symbol)).findFirst().orElse(null);
+    private void showFiredAlerts() {
+        if (alertCount > 20) alertMessages.append("... i ").append(alertCount - 20).append(" więcej\n");
+        String msg = alertMessages.toString();
+        alertMessages.setLength(0);
+        alertCount = 0;
+
+        if (alertNotification == null) {
+            alertNotification = new Alert(Alert.AlertType.WARNING);
+            alertNotification.setTitle("Alerty cenowe");
+            alertNotification.setHeaderText(null);
+            alertNotification.setOnHidden(e -> alertNotification.setContentText(""));
+        }
+        String previous = alertNotification.isShowing() ? alertNotification.getContentText() : "";
+        alertNotification.setContentText(msg + previous);
+        if (!alertNotification.isShowing()) alertNotification.show();
+        updateAlertLabel();
     }
 
     private void updateOwnedLabel() {
         if (selectedStock != null) {
-            PortfolioItem item = findPortfolioItem(selectedStock.getSymbol());
-            double qty = (item != null) ? item.getQuantity() : 0;
-            ownedLabel.setText(String.format("Posiadasz: %.4f szt.", qty));
+            long qty = engine.portfolio().quantity(selectedStock.getId());
+            ownedLabel.setText("Posiadasz: " + Money.formatQuantity(qty, 4) + " szt.");
         }
     }
 
     private void updateFinanceLabels() {
-        double stockVal = myPortfolioData.stream().mapToDouble(p -> p.getQuantity() * p.getStock().getPrice()).sum();
-        cashLabel.setText(String.format("Gotówka: %.2f PLN", cash));
+        long stockVal = engine.portfolio().total();
+        cashLabel.setText("Gotówka: " + Money.format(engine.portfolio().cash()) + " PLN");
         cashLabel.setStyle("-fx-text-fill: #00ffaa; -fx-font-weight: bold;");
-        totalValueLabel.setText(String.format("Wartość Akcji: %.2f PLN", stockVal));
+        totalValueLabel.setText("Wartość Akcji: " + Money.format(stockVal) + " PLN");
         totalValueLabel.setStyle("-fx-text-fill: #eeeeee;");
     }
 
-    private void startMarketSimulation() {
-        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-        executor.scheduleAtFixedRate(() -> {
-            Platform.runLater(() -> {
-                for (Stock s : stockData) {
-                    stockService.updateStockPrice(s);
-                    updateLiveChart(s);
-                    checkAlerts(s);
+    // Wątek FX: raz na klatkę zbiera tylko zmienione symbole i aplikuje je jedną paczką
+    private void startTickPipeline() {
+        new AnimationTimer() {
+            private long nextStatus = 0;
+            private long nextDiagnostics = 0;
+
+            @Override
+            public void handle(long now) {
+                long start = System.nanoTime();
+                MetricsEvents.FxBatch event = new MetricsEvents.FxBatch();
+                event.begin();
+                int changed = engine.drain(engineListener);
+                if (changed > 0) {
+                    FX_BATCH.record(System.nanoTime() - start);
+                    event.symbols = changed;
+                    event.commit();
                 }
-                if (!myPortfolioData.isEmpty()) {
-                    portfolioTable.refresh();
-                    updateFinanceLabels();
+                if (changed > 0 && !myPortfolioData.isEmpty()) updateFinanceLabels();
+                if (alertCount > 0) showFiredAlerts();
+                if (fillCount > 0) showFills();
+                liveChart.redrawIfDirty();
+                if (candlesDirty && candleChart.isVisible()) showCandles();
+                ReplayFeed replay = engine.replay();
+                if (replay != null && now >= nextStatus) {
+                    nextStatus = now + 500_000_000L;
+                    replayLabel.setText(replay.statusText());
                 }
-            });
-        }, 0, 1, TimeUnit.SECONDS);
+                if (diagnosticsTab.isSelected() && now >= nextDiagnostics) {
+                    nextDiagnostics = now + 1_000_000_000L;
+                    updateDiagnostics();
+                }
+                FX_FRAME.record(System.nanoTime() - start);
+            }
+        }.start();
     }
 
-    private void updateLiveChart(Stock s) {
-        if (!stockSeriesMap.containsKey(s.getSymbol())) {
-            XYChart.Series<String, Number> series = new XYChart.Series<>();
-            series.setName(s.getSymbol());
-            stockSeriesMap.put(s.getSymbol(), series);
-        }
-        var series = stockSeriesMap.get(s.getSymbol());
-        String time = new SimpleDateFormat("HH:mm:ss").format(new Date());
-        series.getData().add(new XYChart.Data<>(time, s.getPrice()));
-        if (series.getData().size() > 30) series.getData().remove(0);
-
-        if (selectedStock != null && s.getSymbol().equals(selectedStock.getSymbol())) {
-            if (!liveChart.getData().contains(series)) {
-                liveChart.getData().clear();
-                liveChart.getData().add(series);
-            }
+    // Sonda opóźnienia kolejki Platform.runLater; próbkowanie liczników i zrzut do logu uruchamia MarketEngine
+    private void startMetrics() {
+        engine.scheduler().schedule("fx-lag-probe", TaskScheduler.Policy.FIXED_RATE, 0, 250, TimeUnit.MILLISECONDS, () -> {
+            long posted = System.nanoTime();
+            Platform.runLater(() -> FX_LAG.record(System.nanoTime() - posted));
+        });
+    }
+
+    private void updateDiagnostics() {
+        diagnosticsArea.setText(Metrics.DEFAULT.report() + "\n" + engine.scheduler().report());
+    }
+
+    // Dziennik, kursy, portfel, historia, wskaźniki i świece są już zaktualizowane przez MarketEngine
+    private void applyTick(int id, double price, double change) {
+        Stock s = stockIndex.get(id);
+        if (s == null) s = currencyIndex.get(id);
+        if (s == null) return;
+        s.refresh();
+        PortfolioItem item = portfolioIndex.get(id);
+        if (item != null) item.setValue(engine.portfolio().value(id));
+        if (selectedStock != null && id == selectedStock.getId()) updateLiveChart(id);
+    }
+
+    private void updateLiveChart(int id) {
+        candlesDirty = true;
+        PriceHistory history = engine.history().get(id);
+        // pierwszy tick symbolu - historia dopiero powstała, wykres musi ją dostać
+        if (history.size() == 1) refreshLiveChart();
+        long time = history.time(history.size() - 1);
+        for (var overlay : overlays.entrySet()) {
+            double v = engine.indicators().value(id, overlay.getKey());
+            if (!Double.isNaN(v)) overlay.getValue().add(time, v);
         }
+        updateChartTitle();
+        liveChart.markDirty();
     }
 
+    private void updateChartTitle() {
+        double rsi = engine.indicators().value(selectedStock.getId(), IndicatorEngine.Kind.RSI);
+        liveChart.setTitle(Double.isNaN(rsi) ? selectedStock.getSymbol()
+                : String.format("%s   RSI(%d): %.1f", selectedStock.getSymbol(), engine.indicators().rsiPeriod(), rsi));
+    }
+
+    private void showCandles() {
+        candlesDirty = false;
+        if (selectedStock == null) return;
+        CandleAggregator.Resolution resolution = CandleAggregator.Resolution.forRange(chartRange, 400);
+        candleChart.show(engine.candles().get(selectedStock.getId(), resolution), selectedStock.getSymbol(), chartRange);
+    }
+
+    // Nowa seria i nakładki - tylko przy zmianie wybranego symbolu. Ceny wykres czyta wprost z PriceHistory.
     private void refreshLiveChart() {
-        liveChart.getData().clear();
-        if (selectedStock != null && stockSeriesMap.containsKey(selectedStock.getSymbol())) {
-            liveChart.getData().add(stockSeriesMap.get(selectedStock.getSymbol()));
+        candlesDirty = true;
+        if (selectedStock == null) return;
+        int id = selectedStock.getId();
+        PriceHistory history = engine.history().get(id);
+        liveChart.setSeries(history);
+
+        // Wartości wskaźników są już policzone - tylko odczyt z ich historii (wyrównanej do ostatnich ticków)
+        int stored = history == null ? 0 : Math.min(engine.indicators().historySize(id), history.size());
+        for (var overlay : overlays.entrySet()) {
+            PriceHistory values = new PriceHistory(engine.history().depth());
+            for (int i = 0; i < stored; i++) {
+                double v = engine.indicators().history(id, overlay.getKey(), i);
+                if (!Double.isNaN(v)) values.add(history.time(history.size() - stored + i), v);
+            }
+            overlay.setValue(values);
+            liveChart.addOverlay(values, overlayColor(overlay.getKey()));
         }
+        updateChartTitle();
+    }
+
+    private static Color overlayColor(IndicatorEngine.Kind kind) {
+        return switch (kind) {
+            case SMA -> Color.web("#ffaa00");
+            case EMA -> Color.web("#ff66cc");
+            case BOLLINGER_UPPER, BOLLINGER_LOWER -> Color.web("#6699ff");
+            case VWAP -> Color.web("#33cccc");
+            default -> Color.web("#aaaaaa");
+        };
     }
 
     private void showAlert(String title, String content) {
@@ -496,17 +902,4 @@ public class StockApp extends Application {
     public static void main(String[] args) {
         launch(args);
     }
-
-    public static class PortfolioItem {
-        private final Stock stock;
-        private final SimpleDoubleProperty quantity;
-        public PortfolioItem(Stock stock, double quantity) {
-            this.stock = stock;
-            this.quantity = new SimpleDoubleProperty(quantity);
-        }
-        public Stock getStock() { return stock; }
-        public double getQuantity() { return quantity.get(); }
-        public void setQuantity(double q) { this.quantity.set(q); }
-        public SimpleDoubleProperty quantityProperty() { return quantity; }
-    }
 }
\ No newline at end of file
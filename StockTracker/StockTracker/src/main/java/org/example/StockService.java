@@ -1,199 +1,192 @@
 package org.example;
 
-import javafx.application.Platform;
-import javafx.collections.ObservableList;
-
-import java.net.URI;
+import java.io.IOException;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 public class StockService {
-    private final Random random = new Random();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration GLOBAL_DEADLINE = Duration.ofSeconds(4);
+    private static final double BTC_FALLBACK_PLN = 380000.0;
+    private static final Duration NBP_TTL = Duration.ofMinutes(Long.getLong("nbp.ttl.minutes", 720));
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+
+    record Instrument(String name, String stooqSymbol, double fallback) { }
+
+    // Instrumenty krypto ze strumienia: nazwa w tabeli i para Binance (cena w USDT ~ USD)
+    record CryptoPair(String name, String pair) { }
+
+    static final List<CryptoPair> CRYPTO = List.of(new CryptoPair("BITCOIN", "btcusdt"));
+
+    static final List<Instrument> WIG20 = List.of(
+            new Instrument("ZABKA", "zab", 19.50),
+            new Instrument("CCC", "ccc", 180.0),
+            new Instrument("PKO_BP", "pko", 58.0),
+            new Instrument("PEKAO", "peo", 155.0),
+            new Instrument("PKNORLEN", "pkn", 65.0),
+            new Instrument("KGHM", "kgh", 115.0),
+            new Instrument("ALLEGRO", "ale", 32.0),
+            new Instrument("CDPROJEKT", "cdr", 150.0),
+            new Instrument("DINO", "dnp", 380.0),
+            new Instrument("PZU", "pzu", 49.0),
+            new Instrument("LPP", "lpp", 17000.0),
+            new Instrument("PEPCO", "pco", 23.0),
+            new Instrument("SANTANDER", "spl", 560.0),
+            new Instrument("MBANK", "mbk", 690.0),
+            new Instrument("ALIOR", "alr", 95.0),
+            new Instrument("KRUK", "kru", 460.0),
+            new Instrument("KETY", "kty", 800.0),
+            new Instrument("BUDIMEX", "bdx", 700.0),
+            new Instrument("PGE", "pge", 7.50),
+            new Instrument("ORANGE", "opl", 8.50)
+    );
+
     private final HttpClient httpClient = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(REQUEST_TIMEOUT)
             .build();
 
 
-    private volatile double currentUsdRate = 4.0;
-
-
-    public List<Stock> getStocks() {
-        List<Stock> stocks = new ArrayList<>();
-
-
-        double fetchedUsd = fetchNbpRate("usd");
-        if (fetchedUsd > 0) currentUsdRate = fetchedUsd;
-
-
-        stocks.add(new Stock("BITCOIN", fetchCryptoWithBackup()));
-
+    private final ParallelFetcher fetcher = new ParallelFetcher(GLOBAL_DEADLINE);
+    private final StooqBatchProvider stooq;
+    private final QuoteChain stooqChain;
+    private final QuoteChain nbpChain;
+    private final QuoteChain cryptoChain;
+    private final RateCache nbpRates;
+    private final String streamUrl;
 
-        stocks.add(new Stock("ZABKA", fetchStooqPrice("zab", 19.50)));
-        stocks.add(new Stock("CCC", fetchStooqPrice("ccc", 180.0)));
-        stocks.add(new Stock("PKO_BP", fetchStooqPrice("pko", 58.0)));
-        stocks.add(new Stock("PEKAO", fetchStooqPrice("peo", 155.0)));
-        stocks.add(new Stock("PKNORLEN", fetchStooqPrice("pkn", 65.0)));
-        stocks.add(new Stock("KGHM", fetchStooqPrice("kgh", 115.0)));
-        stocks.add(new Stock("ALLEGRO", fetchStooqPrice("ale", 32.0)));
-        stocks.add(new Stock("CDPROJEKT", fetchStooqPrice("cdr", 150.0)));
-        stocks.add(new Stock("DINO", fetchStooqPrice("dnp", 380.0)));
-        stocks.add(new Stock("PZU", fetchStooqPrice("pzu", 49.0)));
-        stocks.add(new Stock("LPP", fetchStooqPrice("lpp", 17000.0)));
-        stocks.add(new Stock("PEPCO", fetchStooqPrice("pco", 23.0)));
-        stocks.add(new Stock("SANTANDER", fetchStooqPrice("spl", 560.0)));
-        stocks.add(new Stock("MBANK", fetchStooqPrice("mbk", 690.0)));
-        stocks.add(new Stock("ALIOR", fetchStooqPrice("alr", 95.0)));
-        stocks.add(new Stock("KRUK", fetchStooqPrice("kru", 460.0)));
-        stocks.add(new Stock("KETY", fetchStooqPrice("kty", 800.0)));
-        stocks.add(new Stock("BUDIMEX", fetchStooqPrice("bdx", 700.0)));
-        stocks.add(new Stock("PGE", fetchStooqPrice("pge", 7.50)));
-        stocks.add(new Stock("ORANGE", fetchStooqPrice("opl", 8.50)));
+    private volatile double currentUsdRate = 4.0;
+    private volatile CryptoStream stream;
+    private StubQuoteServer stub;
 
-        return stocks;
+    // -Dquotes.stub=true uruchamia lokalną atrapę zamiast prawdziwych API
+    public StockService() {
+        this(Boolean.getBoolean("quotes.stub") ? startStub() : null);
     }
 
-    public List<Stock> getCurrencies() {
-        List<Stock> currencies = new ArrayList<>();
-
-        currencies.add(new Stock("USD/PLN", currentUsdRate));
-        currencies.add(new Stock("EUR/PLN", fetchNbpRate("eur")));
-        currencies.add(new Stock("CHF/PLN", fetchNbpRate("chf")));
-        currencies.add(new Stock("GBP/PLN", fetchNbpRate("gbp")));
-        return currencies;
+    private StockService(StubQuoteServer stub) {
+        this(stub != null ? stub.endpoints() : QuoteEndpoints.LIVE);
+        this.stub = stub;
     }
 
+    public StockService(QuoteEndpoints endpoints) {
+        stooq = new StooqBatchProvider(httpClient, endpoints.stooq(), REQUEST_TIMEOUT);
+        stooqChain = new QuoteChain(List.of(stooq));
+        nbpChain = new QuoteChain(List.of(new NbpProvider(httpClient, endpoints.nbp(), REQUEST_TIMEOUT)));
+        nbpRates = new RateCache(nbpChain::fetch, NBP_TTL, Clock.system(WARSAW));
+        cryptoChain = new QuoteChain(List.of(
+                new BinanceProvider(httpClient, endpoints.binance(), REQUEST_TIMEOUT),
+                new CoinCapProvider(httpClient, endpoints.coinCap(), REQUEST_TIMEOUT)));
+        streamUrl = endpoints.binanceStream();
+    }
 
-    public void startMarketMonitor(ObservableList<Stock> mainStocks, ObservableList<Stock> currencyStocks) {
-
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private static StubQuoteServer startStub() {
+        try {
+            return StubQuoteServer.start(0);
+        } catch (IOException e) {
+            System.err.println("Nie udało się uruchomić StubQuoteServer: " + e);
+            return null;
+        }
+    }
 
+    // Wątek dyspozytora HttpServer atrapy nie jest daemon - bez tego JVM nie kończy się po zamknięciu okna
+    public void close() {
+        CryptoStream s = stream;
+        if (s != null) s.stop();
+        if (stub != null) stub.stop();
+    }
 
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                double btcPln = fetchCryptoWithBackup();
-                if (btcPln > 0) {
-                    Platform.runLater(() -> updateStockInList(mainStocks, "BITCOIN", btcPln));
-                }
-            } catch (Exception e) { e.printStackTrace(); }
-        }, 2, 5, TimeUnit.SECONDS);
 
+    public List<Quote> getStocks() {
+        List<Callable<Map<String, Double>>> tasks = new ArrayList<>();
+        tasks.add(ParallelFetcher.single("USD", () -> nbpRates.get("usd")));
+        tasks.add(ParallelFetcher.single("BITCOIN", () -> cryptoChain.fetch("BTC")));
+        for (List<String> chunk : stooq.chunks(WIG20.stream().map(Instrument::stooqSymbol).toList())) {
+            tasks.add(() -> stooqChain.fetch(chunk));
+        }
+        Map<String, Double> fetched = fetcher.fetchAll(tasks);
 
-    }
+        Double fetchedUsd = fetched.get("USD");
+        if (fetchedUsd != null) currentUsdRate = fetchedUsd;
 
-    private void updateStockInList(ObservableList<Stock> stocks, String symbol, double newPrice) {
-        if (newPrice <= 0) return;
-        for (Stock s : stocks) {
-            if (s.getSymbol().equals(symbol)) {
-                double oldPrice = s.getPrice();
-                if (oldPrice > 0 && Math.abs(newPrice - oldPrice) > 0.0001) {
-                    double change = ((newPrice - oldPrice) / oldPrice) * 100.0;
-                    s.setChange(Math.round(change * 100.0) / 100.0);
-                }
-                s.setPrice(newPrice);
-                break;
-            }
+        List<Quote> stocks = new ArrayList<>();
+        Double btcUsd = fetched.get("BITCOIN");
+        stocks.add(new Quote("BITCOIN", btcUsd != null ? btcUsd * currentUsdRate : BTC_FALLBACK_PLN));
+        for (Instrument i : WIG20) {
+            stocks.add(new Quote(i.name(), fetched.getOrDefault(i.stooqSymbol(), i.fallback())));
         }
+        return stocks;
     }
 
+    public List<Quote> getCurrencies() {
+        // po getStocks() cała tabela A jest już w cache, więc zwykle nie idzie żadne zapytanie
+        List<String> codes = List.of("eur", "chf", "gbp");
+        Map<String, Double> fetched = fetcher.fetchAll(List.of(() -> nbpRates.getAll(codes)));
 
-    private double fetchCryptoWithBackup() {
-        double priceUsd = fetchBinancePrice();
-        if (priceUsd <= 0) priceUsd = fetchCoinCapPrice();
-        if (priceUsd > 0) return priceUsd * currentUsdRate;
-        return 380000.0;
+        List<Quote> currencies = new ArrayList<>();
+        currencies.add(new Quote("USD/PLN", currentUsdRate));
+        for (String code : codes) {
+            currencies.add(new Quote(code.toUpperCase() + "/PLN", fetched.getOrDefault(code, -1.0)));
+        }
+        return currencies;
     }
 
-    private double fetchStooqPrice(String symbol, double fallback) {
-        try {
-            String url = "https://stooq.pl/q/l/?s=" + symbol + "&f=sd2t2ohlc&h&e=csv";
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
-                    .header("User-Agent", "Mozilla/5.0").GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                String[] lines = response.body().split("\n");
-                if (lines.length > 1) {
-                    String[] cols = lines[1].split(",");
-                    if (cols.length >= 7) return Double.parseDouble(cols[6]);
-                }
-            }
-        } catch (Exception e) { }
-        return fallback;
-    }
 
-    private double fetchNbpRate(String curr) {
-        try {
-            String url = "http://api.nbp.pl/api/exchangerates/rates/a/" + curr + "/?format=json";
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                String json = response.body();
-                String key = "\"mid\":";
-                int start = json.indexOf(key);
-                if (start != -1) {
-                    start += key.length();
-                    int end = json.indexOf("}", start);
-                    if (end == -1) end = json.indexOf(",", start);
-                    return Double.parseDouble(json.substring(start, end));
-                }
-            }
-        } catch (Exception e) { }
-        return -1;
+    // Transakcje krypto ze strumienia WebSocket prosto do bufora, przeliczone na PLN ostatnim kursem USD z NBP.
+    // Cena zaokrąglona do grosza - kolejne transakcje po tej samej cenie nie budzą UI.
+    public CryptoStream startMarketStream(TickBuffer ticks, TaskScheduler scheduler) {
+        int[] ids = CRYPTO.stream().mapToInt(c -> ticks.indexOf(c.name())).toArray();
+        CryptoStream s = new CryptoStream(httpClient, streamUrl, CRYPTO.stream().map(CryptoPair::pair).toList(),
+                (pair, priceUsd) -> {
+                    int id = ids[pair];
+                    if (id < 0) return;
+                    double pln = Math.round(priceUsd * currentUsdRate * 100.0) / 100.0;
+                    publishIfChanged(ticks, id, pln);
+                });
+        stream = s;
+        s.start(scheduler);
+        return s;
     }
 
-    private double fetchBinancePrice() {
-        try {
-            String url = "https://api.binance.com/api/v3/ticker/price?symbol=BTCUSDT";
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
-                    .header("User-Agent", "Mozilla/5.0").GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                String json = response.body();
-                String search = "\"price\":\"";
-                int start = json.indexOf(search);
-                if (start != -1) {
-                    start += search.length();
-                    int end = json.indexOf("\"", start);
-                    return Double.parseDouble(json.substring(start, end));
-                }
+    // Monitor nie dotyka już listy ani wątku FX - publikuje cenę do bufora, UI zbierze ją w najbliższej klatce.
+    // FIXED_RATE: przy wolnej sieci (pobranie dłuższe niż 5 s) terminy są pomijane, a nie kolejkowane.
+    // Przy działającym strumieniu tylko odświeża kurs USD; REST zostaje zapasem, gdy strumień milczy.
+    public TaskScheduler.Task startMarketMonitor(TickBuffer ticks, TaskScheduler scheduler) {
+        int btc = ticks.indexOf("BITCOIN");
+        if (btc < 0) return null;
+
+        return scheduler.schedule("btc-monitor", TaskScheduler.Policy.FIXED_RATE, 2, 5, TimeUnit.SECONDS, () -> {
+            CryptoStream s = stream;
+            if (s != null && s.isLive()) {
+                double usd = nbpRates.get("usd");
+                if (usd > 0) currentUsdRate = usd;
+                return;
             }
-        } catch (Exception e) { }
-        return -1;
+            publishIfChanged(ticks, btc, fetchCryptoWithBackup());
+        });
     }
 
-    private double fetchCoinCapPrice() {
-        try {
-            String url = "https://api.coincap.io/v2/assets/bitcoin";
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
-                    .header("User-Agent", "Mozilla/5.0").GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                String json = response.body();
-                String search = "\"priceUsd\":\"";
-                int start = json.indexOf(search);
-                if (start != -1) {
-                    start += search.length();
-                    int end = json.indexOf("\"", start);
-                    return Double.parseDouble(json.substring(start, end));
-                }
-            }
-        } catch (Exception e) { }
-        return -1;
+    private static void publishIfChanged(TickBuffer ticks, int id, double pricePln) {
+        double oldPrice = ticks.price(id);
+        if (pricePln > 0 && Math.abs(pricePln - oldPrice) > 0.0001) {
+            double change = oldPrice > 0 ? ((pricePln - oldPrice) / oldPrice) * 100.0 : 0.0;
+            ticks.publish(id, pricePln, Math.round(change * 100.0) / 100.0);
+        }
     }
 
 
-    public void updateStockPrice(Stock stock) {
-        if (stock.getSymbol().equals("BITCOIN")) return;
-        double current = stock.getPrice();
-        double chg = (random.nextDouble() - 0.5) * 0.01;
-        double next = current + (current * chg);
-        stock.setPrice(Math.round(next * 100.0) / 100.0);
-        stock.setChange(Math.round(chg * 10000.0) / 100.0);
+    private double fetchCryptoWithBackup() {
+        double usd = nbpRates.get("usd");
+        if (usd > 0) currentUsdRate = usd;
+        double priceUsd = cryptoChain.fetch("BTC");
+        if (priceUsd > 0) return priceUsd * currentUsdRate;
+        return BTC_FALLBACK_PLN;
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pobiera notowania wielu spółek jednym zapytaniem: s=zab+ccc+pko...
+// Jeśli lista jest za długa na jeden URL, dzieli ją na kilka paczek.
+public class StooqBatchProvider extends HttpQuoteProvider {
+    public static final String BASE_URL = "https://stooq.pl";
+
+    private static final String PATH = "/q/l/?s=";
+    private static final String FORMAT = "&f=sd2t2ohlc&h&e=csv";
+    private static final int MAX_URL_LENGTH = 1800;
+    private static final int CLOSE_COLUMN = 6;
+
+    public StooqBatchProvider(HttpClient httpClient, String baseUrl, Duration timeout) {
+        super(httpClient, baseUrl, timeout);
+    }
+
+    @Override
+    public String name() { return "Stooq"; }
+
+    @Override
+    public Map<String, Double> fetchQuotes(List<String> symbols) throws Exception {
+        Map<String, Double> prices = new HashMap<>();
+        for (List<String> chunk : chunks(symbols)) prices.putAll(fetchChunk(chunk));
+        return prices;
+    }
+
+    public List<List<String>> chunks(List<String> symbols) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int emptyLength = baseUrl.length() + PATH.length() + FORMAT.length();
+        int length = emptyLength;
+        for (String symbol : symbols) {
+            int added = symbol.length() + (current.isEmpty() ? 0 : 1);
+            if (!current.isEmpty() && length + added > MAX_URL_LENGTH) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                length = emptyLength;
+                added = symbol.length();
+            }
+            current.add(symbol);
+            length += added;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    // Zwraca tylko symbole, dla których przyszła poprawna cena zamknięcia.
+    // Wiersze przychodzą zwykle w kolejności zapytania, więc symbol dopasowujemy od bieżącej pozycji.
+    public Map<String, Double> fetchChunk(List<String> symbols) throws IOException, InterruptedException {
+        return get(baseUrl + PATH + String.join("+", symbols) + FORMAT,
+                body -> parseChunk(body.array(), body.length(), symbols));
+    }
+
+    // Osobno od zapytania, żeby dało się zmierzyć parsowanie na gotowej odpowiedzi
+    public Map<String, Double> parseChunk(byte[] body, int length, List<String> symbols) {
+        Map<String, Double> prices = new HashMap<>();
+        int[] cursor = {0};
+        FastQuoteParser.forEachCsvRow(body, length, CLOSE_COLUMN, (buf, from, to, close) -> {
+            if (close <= 0) return;
+            for (int n = 0; n < symbols.size(); n++) {
+                int idx = (cursor[0] + n) % symbols.size();
+                String symbol = symbols.get(idx);
+                if (FastQuoteParser.equalsIgnoreCase(buf, from, to, symbol)) {
+                    prices.put(symbol, close);
+                    cursor[0] = idx + 1;
+                    return;
+                }
+            }
+        });
+        return prices;
+    }
+}
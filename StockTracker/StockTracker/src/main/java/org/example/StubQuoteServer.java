@@ -0,0 +1,174 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lokalna atrapa Stooq/NBP/Binance/CoinCap odtwarzająca gotowe odpowiedzi, razem ze strumieniem transakcji
+// Binance (StubStreamServer, -Dstub.stream.hz, domyślnie 20 transakcji na sekundę na parę).
+// Pozwala sprawdzić cały łańcuch providerów (i obciążyć go) bez internetu.
+// Uruchomienie: java org.example.StubQuoteServer [port], albo aplikacja z -Dquotes.stub=true
+public class StubQuoteServer {
+    private final HttpServer server;
+    private StubStreamServer stream;
+    private final Map<String, Double> stooqPrices = new ConcurrentHashMap<>();
+    private final Map<String, Double> nbpRates = new ConcurrentHashMap<>();
+    private final Map<String, Double> cryptoUsd = new ConcurrentHashMap<>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+
+    public StubQuoteServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/stooq/", ex -> handle(ex, "stooq", this::stooqBody));
+        server.createContext("/nbp/", ex -> handle(ex, "nbp", this::nbpBody));
+        server.createContext("/binance/", ex -> handle(ex, "binance", this::binanceBody));
+        server.createContext("/coincap/", ex -> handle(ex, "coincap", this::coinCapBody));
+
+        for (StockService.Instrument i : StockService.WIG20) stooqPrices.put(i.stooqSymbol(), i.fallback());
+        nbpRates.put("usd", 3.9812);
+        nbpRates.put("eur", 4.3105);
+        nbpRates.put("chf", 4.5230);
+        nbpRates.put("gbp", 5.0466);
+        cryptoUsd.put("BTC", 65000.0);
+    }
+
+    public static StubQuoteServer start(int port) throws IOException {
+        StubQuoteServer stub = new StubQuoteServer(port);
+        stub.server.start();
+        stub.stream = StubStreamServer.start(0, stub.cryptoUsd, Double.parseDouble(System.getProperty("stub.stream.hz", "20")));
+        return stub;
+    }
+
+    public void stop() {
+        server.stop(0);
+        if (stream != null) stream.stop();
+    }
+
+    public String baseUrl() { return "http://127.0.0.1:" + server.getAddress().getPort(); }
+
+    public QuoteEndpoints endpoints() { return QuoteEndpoints.local(baseUrl(), stream.url()); }
+
+    public StubStreamServer stream() { return stream; }
+
+    // --- sterowanie atrapą (awarie, opóźnienia, ceny) ---
+    public void setFailing(String provider, boolean fail) {
+        if (fail) failing.add(provider); else failing.remove(provider);
+    }
+
+    public void setDelay(String provider, long millis) { delays.put(provider, millis); }
+
+    public void setStooqPrice(String symbol, double price) { stooqPrices.put(symbol, price); }
+
+    public void setCryptoUsd(String symbol, double price) { cryptoUsd.put(symbol, price); }
+
+    public long requestCount(String provider) {
+        AtomicLong c = requestCounts.get(provider);
+        return c == null ? 0 : c.get();
+    }
+
+    private interface Responder {
+        String body(URI uri);
+    }
+
+    private void handle(HttpExchange ex, String provider, Responder responder) throws IOException {
+        requestCounts.computeIfAbsent(provider, k -> new AtomicLong()).incrementAndGet();
+        try {
+            long delay = delays.getOrDefault(provider, 0L);
+            if (delay > 0) Thread.sleep(delay);
+            String body = failing.contains(provider) ? null : responder.body(ex.getRequestURI());
+            byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(body == null ? 503 : 200, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                try (OutputStream out = ex.getResponseBody()) { out.write(bytes); }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ex.close();
+        }
+    }
+
+    private String stooqBody(URI uri) {
+        String symbols = queryParam(uri, "s");
+        StringBuilder csv = new StringBuilder("Symbol,Data,Czas,Otwarcie,Najwyzszy,Najnizszy,Zamkniecie\r\n");
+        if (symbols == null) return csv.toString();
+        for (String s : symbols.split("[+ ]")) {
+            Double p = stooqPrices.get(s.toLowerCase(Locale.ROOT));
+            String sym = s.toUpperCase(Locale.ROOT);
+            if (p == null) csv.append(sym).append(",N/D,N/D,N/D,N/D,N/D,N/D\r\n");
+            else csv.append(String.format(Locale.ROOT, "%s,2024-01-05,17:00:00,%.2f,%.2f,%.2f,%.2f\r\n",
+                    sym, p, p * 1.01, p * 0.99, p));
+        }
+        return csv.toString();
+    }
+
+    private String nbpBody(URI uri) {
+        if (uri.getPath().contains("/tables/a")) return nbpTableBody();
+        // /nbp/api/exchangerates/rates/a/{code}/
+        String[] parts = uri.getPath().split("/");
+        String code = parts[parts.length - 1];
+        Double mid = nbpRates.get(code.toLowerCase(Locale.ROOT));
+        if (mid == null) return null;
+        return String.format(Locale.ROOT, "{\"table\":\"A\",\"code\":\"%s\",\"rates\":[{\"no\":\"004/A/NBP/2024\","
+                + "\"effectiveDate\":\"2024-01-05\",\"mid\":%.4f}]}", code.toUpperCase(Locale.ROOT), mid);
+    }
+
+    private String nbpTableBody() {
+        StringBuilder json = new StringBuilder("[{\"table\":\"A\",\"no\":\"004/A/NBP/2024\","
+                + "\"effectiveDate\":\"2024-01-05\",\"rates\":[");
+        boolean first = true;
+        for (Map.Entry<String, Double> e : nbpRates.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            json.append(String.format(Locale.ROOT, "{\"currency\":\"%s\",\"code\":\"%s\",\"mid\":%.4f}",
+                    e.getKey(), e.getKey().toUpperCase(Locale.ROOT), e.getValue()));
+        }
+        return json.append("]}]").toString();
+    }
+
+    private String binanceBody(URI uri) {
+        String pair = queryParam(uri, "symbol");
+        if (pair == null || !pair.endsWith("USDT")) return null;
+        Double price = cryptoUsd.get(pair.substring(0, pair.length() - 4));
+        if (price == null) return null;
+        return String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"price\":\"%.8f\"}", pair, price);
+    }
+
+    private String coinCapBody(URI uri) {
+        String path = uri.getPath();
+        String assetId = path.substring(path.lastIndexOf('/') + 1);
+        Double price = assetId.equals("bitcoin") ? cryptoUsd.get("BTC") : null;
+        if (price == null) return null;
+        return String.format(Locale.ROOT, "{\"data\":{\"id\":\"%s\",\"symbol\":\"BTC\",\"priceUsd\":\"%.8f\"},"
+                + "\"timestamp\":1704470400000}", assetId, price);
+    }
+
+    private static String queryParam(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) return null;
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).equals(name)) return param.substring(eq + 1);
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        StubQuoteServer stub = start(port);
+        System.out.println("StubQuoteServer: " + stub.baseUrl() + ", strumień: " + stub.stream.url());
+    }
+}
@@ -0,0 +1,296 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lokalna atrapa strumienia transakcji Binance (WebSocket, RFC 6455) dla CryptoStream - bez internetu.
+// Obsługuje tylko to, czego używa klient: handshake, ramki tekstowe bez fragmentacji, SUBSCRIBE, ping i close.
+// Co 1/hz s każde połączenie dostaje transakcję każdej zasubskrybowanej pary (błądzenie losowe wokół
+// ceny z cryptoUsd, pole E = bieżący czas, więc widać opóźnienie w metryce stream.lag).
+//
+// disconnectAll() i setRejecting() pozwalają sprawdzić ponowne łączenie i odstępy CryptoStream.
+// Uruchomienie: razem z StubQuoteServer (-Dquotes.stub=true) albo java org.example.StubStreamServer [port]
+public class StubStreamServer {
+    private static final String WS_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket server;
+    private final Map<String, Double> cryptoUsd;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, Double> lastPrices = new ConcurrentHashMap<>();
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final long periodNanos;
+    private volatile boolean rejecting;
+    private volatile boolean stopped;
+    private long tradeId;
+
+    // cryptoUsd: ceny w USD po tickerze (np. "BTC") - ta sama mapa co w StubQuoteServer
+    public StubStreamServer(int port, Map<String, Double> cryptoUsd, double hz) throws IOException {
+        server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.cryptoUsd = cryptoUsd;
+        this.periodNanos = (long) (1_000_000_000L / hz);
+    }
+
+    public static StubStreamServer start(int port, Map<String, Double> cryptoUsd, double hz) throws IOException {
+        StubStreamServer stub = new StubStreamServer(port, cryptoUsd, hz);
+        Thread acceptor = new Thread(stub::acceptLoop, "stub-stream-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        Thread pusher = new Thread(stub::pushLoop, "stub-stream-push");
+        pusher.setDaemon(true);
+        pusher.start();
+        return stub;
+    }
+
+    public void stop() {
+        stopped = true;
+        try {
+            server.close();
+        } catch (IOException e) { }
+        disconnectAll();
+    }
+
+    public String url() { return "ws://127.0.0.1:" + server.getLocalPort() + "/ws"; }
+
+    // --- sterowanie atrapą ---
+    // Zrywa wszystkie połączenia bez ramki close (jak awaria sieci)
+    public void disconnectAll() {
+        for (Connection c : connections) c.close();
+    }
+
+    // true: handshake się udaje, ale połączenie jest od razu zamykane
+    public void setRejecting(boolean reject) { rejecting = reject; }
+
+    public int connections() { return connections.size(); }
+
+    public long accepted() { return accepted.get(); }
+
+    public long messagesSent() { return sent.get(); }
+
+    private void acceptLoop() {
+        while (!stopped) {
+            try {
+                Socket socket = server.accept();
+                Thread.ofVirtual().name("stub-stream-conn").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!stopped) System.err.println("StubStreamServer: " + e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Connection c = null;
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (!handshake(in, socket.getOutputStream())) {
+                socket.close();
+                return;
+            }
+            accepted.incrementAndGet();
+            if (rejecting) {
+                socket.close();
+                return;
+            }
+            c = new Connection(socket);
+            connections.add(c);
+            c.readLoop(in);
+        } catch (IOException e) {
+            // klient się rozłączył albo disconnectAll()
+        } finally {
+            if (c != null) {
+                connections.remove(c);
+                c.close();
+            }
+        }
+    }
+
+    private static boolean handshake(InputStream in, OutputStream out) throws IOException {
+        String key = null;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+                key = line.substring(colon + 1).trim();
+            }
+        }
+        if (key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            return false;
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return true;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') line.append((char) b);
+        }
+        if (b == -1 && line.isEmpty()) throw new IOException("Połączenie zamknięte w trakcie handshake");
+        return line.toString();
+    }
+
+    static String acceptKey(String key) {
+        try {
+            byte[] sha1 = MessageDigest.getInstance("SHA-1").digest((key + WS_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(sha1);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void pushLoop() {
+        long next = System.nanoTime();
+        while (!stopped) {
+            next += periodNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                next = System.nanoTime();
+            }
+            for (Connection c : connections) {
+                for (String pair : c.pairs) {
+                    String msg = tradeMessage(pair);
+                    if (msg != null && c.send(1, msg.getBytes(StandardCharsets.US_ASCII))) sent.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Tylko wątek stub-stream-push
+    private String tradeMessage(String pair) {
+        if (!pair.endsWith("USDT")) return null;
+        Double base = cryptoUsd.get(pair.substring(0, pair.length() - 4));
+        if (base == null) return null;
+        double last = lastPrices.getOrDefault(pair, base);
+        // błądzenie wokół ceny z mapy - setCryptoUsd() w StubQuoteServer przesuwa też strumień
+        double price = last + (base - last) * 0.05 + last * 0.0002 * random.nextGaussian();
+        lastPrices.put(pair, price);
+        long now = System.currentTimeMillis();
+        return String.format(Locale.ROOT, "{\"e\":\"trade\",\"E\":%d,\"s\":\"%s\",\"t\":%d,\"p\":\"%.8f\","
+                + "\"q\":\"0.01000000\",\"T\":%d,\"m\":false,\"M\":true}", now, pair, ++tradeId, price, now);
+    }
+
+    private final class Connection {
+        final Socket socket;
+        final OutputStream out;
+        final Set<String> pairs = ConcurrentHashMap.newKeySet();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        // Ramki klienta są zawsze maskowane
+        void readLoop(DataInputStream in) throws IOException {
+            while (true) {
+                int b0 = in.readUnsignedByte();
+                int b1 = in.readUnsignedByte();
+                int opcode = b0 & 0x0F;
+                long len = b1 & 0x7F;
+                if (len == 126) len = in.readUnsignedShort();
+                else if (len == 127) len = in.readLong();
+                if (len > 1 << 20) throw new IOException("Za duża ramka: " + len);
+                byte[] mask = new byte[4];
+                if ((b1 & 0x80) != 0) in.readFully(mask);
+                byte[] payload = new byte[(int) len];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+                switch (opcode) {
+                    case 1 -> onText(new String(payload, StandardCharsets.UTF_8));
+                    case 8 -> {
+                        send(8, payload);
+                        return;
+                    }
+                    case 9 -> send(10, payload);
+                    default -> { }
+                }
+            }
+        }
+
+        // {"method":"SUBSCRIBE","params":["btcusdt@trade",...],"id":1}
+        private void onText(String json) {
+            int params = json.indexOf("\"params\"");
+            int open = json.indexOf('[', params);
+            int close = json.indexOf(']', open);
+            if (params < 0 || open < 0 || close < 0) return;
+            boolean subscribe = json.contains("\"SUBSCRIBE\"");
+            for (String p : json.substring(open + 1, close).split(",")) {
+                String stream = p.replace("\"", "").trim();
+                int at = stream.indexOf('@');
+                if (at <= 0) continue;
+                String pair = stream.substring(0, at).toUpperCase(Locale.ROOT);
+                if (subscribe) pairs.add(pair);
+                else pairs.remove(pair);
+            }
+            int idPos = json.indexOf("\"id\":");
+            String id = idPos < 0 ? "null" : json.substring(idPos + 5).replaceAll("[^0-9].*$", "");
+            send(1, ("{\"result\":null,\"id\":" + (id.isEmpty() ? "null" : id) + "}").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        synchronized boolean send(int opcode, byte[] payload) {
+            try {
+                int len = payload.length;
+                out.write(0x80 | opcode);
+                if (len < 126) {
+                    out.write(len);
+                } else if (len < 65536) {
+                    out.write(126);
+                    out.write(len >>> 8);
+                    out.write(len);
+                } else {
+                    out.write(127);
+                    for (int shift = 56; shift >= 0; shift -= 8) out.write((int) ((long) len >>> shift));
+                }
+                out.write(payload);
+                out.flush();
+                return true;
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) { }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        StubStreamServer stub = start(port, Map.of("BTC", 65000.0, "ETH", 3200.0), 10);
+        System.out.println("StubStreamServer: " + stub.url());
+        Thread.currentThread().join();
+    }
+}
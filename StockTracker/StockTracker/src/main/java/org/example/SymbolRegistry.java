@@ -0,0 +1,34 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Nadaje każdemu symbolowi stały numer (0, 1, 2...). Dalej w aplikacji (bufor ticków, indeksy
+// akcji i portfela) używamy numeru jako indeksu tablicy zamiast szukać po Stringu.
+public class SymbolRegistry {
+    public static final SymbolRegistry DEFAULT = new SymbolRegistry();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    public synchronized int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) return id;
+        int next = symbols.size();
+        symbols.add(symbol);
+        ids.put(symbol, next);
+        return next;
+    }
+
+    // -1, jeśli symbol nie był jeszcze zarejestrowany
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized String symbol(int id) { return symbols.get(id); }
+
+    public synchronized int size() { return symbols.size(); }
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Wspólne wątki zadań okresowych aplikacji (monitor BTC, symulator). Wątki są nazwane i daemon,
+// shutdown() zatrzymuje wszystko przy zamykaniu aplikacji.
+//
+// Zadanie po każdym wykonaniu samo planuje następne, więc nigdy nie biegnie równolegle ze sobą:
+// - FIXED_RATE: kolejny start w stałej siatce czasu; jeśli wykonanie trwało dłużej niż okres,
+//   przepadłe terminy są pomijane (i liczone), zamiast nadrabiane seriami jeden po drugim,
+// - FIXED_DELAY: kolejny start okres po zakończeniu poprzedniego.
+// Wyjątek w zadaniu jest liczony i logowany, ale nie zatrzymuje harmonogramu (w przeciwieństwie do
+// ScheduledExecutorService) - także Error (AssertionError, StackOverflowError, OutOfMemoryError, po którym
+// zadanie może jeszcze działać). Zadanie znikające po cichu z harmonogramu wciąż byłoby w diagnostyce.
+public class TaskScheduler {
+    public enum Policy { FIXED_RATE, FIXED_DELAY }
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final List<Task> tasks = new CopyOnWriteArrayList<>();
+
+    public TaskScheduler(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public Task schedule(String name, Policy policy, long initialDelay, long period, TimeUnit unit, Runnable body) {
+        if (period <= 0) throw new IllegalArgumentException("Okres musi być dodatni");
+        Task task = new Task(name, policy, unit.toNanos(period), body);
+        tasks.add(task);
+        task.next = System.nanoTime() + unit.toNanos(initialDelay);
+        task.plan(unit.toNanos(initialDelay));
+        return task;
+    }
+
+    public List<Task> tasks() { return List.copyOf(tasks); }
+
+    // Nowe uruchomienia są wstrzymane od razu; trwające dostają timeout na zakończenie, potem przerwanie
+    public void shutdown(long timeout, TimeUnit unit) {
+        for (Task t : tasks) t.cancelled = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isShutdown() { return executor.isShutdown(); }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Task t : tasks) sb.append(t).append('\n');
+        return sb.toString();
+    }
+
+    public final class Task implements Runnable {
+        private final String name;
+        private final Policy policy;
+        private final long periodNanos;
+        private final Runnable body;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+        private long next;
+
+        // statystyki - zapisuje tylko wątek wykonujący zadanie, czytać można z dowolnego
+        private volatile long runs;
+        private volatile long skipped;
+        private volatile long failures;
+        private volatile long lastNanos;
+        private volatile long maxNanos;
+        private volatile long totalNanos;
+
+        private Task(String name, Policy policy, long periodNanos, Runnable body) {
+            this.name = name;
+            this.policy = policy;
+            this.periodNanos = periodNanos;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+            long start = System.nanoTime();
+            try {
+                body.run();
+            } catch (Throwable e) {
+                failures++;
+                System.err.println("Zadanie " + name + " zakończone wyjątkiem: " + e);
+            }
+            long end = System.nanoTime();
+            long took = end - start;
+            lastNanos = took;
+            if (took > maxNanos) maxNanos = took;
+            totalNanos += took;
+            runs++;
+
+            if (policy == Policy.FIXED_DELAY) {
+                next = end + periodNanos;
+            } else {
+                next += periodNanos;
+                if (next < end) {
+                    long missed = (end - next) / periodNanos + 1;
+                    skipped += missed;
+                    next += missed * periodNanos;
+                }
+            }
+            plan(next - end);
+        }
+
+        private void plan(long delayNanos) {
+            if (cancelled) return;
+            try {
+                future = executor.schedule(this, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // shutdown w trakcie wykonania - po prostu nie planujemy dalej
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> f = future;
+            if (f != null) f.cancel(false);
+            tasks.remove(this);
+        }
+
+        public String name() { return name; }
+
+        public long runs() { return runs; }
+
+        // Terminy FIXED_RATE pominięte, bo poprzednie wykonanie trwało za długo
+        public long skipped() { return skipped; }
+
+        public long failures() { return failures; }
+
+        public double lastMillis() { return lastNanos / 1e6; }
+
+        public double maxMillis() { return maxNanos / 1e6; }
+
+        public double averageMillis() {
+            long n = runs;
+            return n > 0 ? totalNanos / 1e6 / n : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s [%s co %.0f ms]: %d wykonań, %d pominiętych, %d błędów, śr. %.2f ms, max %.2f ms",
+                    name, policy, periodNanos / 1e6, runs, skipped, failures, averageMillis(), maxMillis());
+        }
+    }
+}
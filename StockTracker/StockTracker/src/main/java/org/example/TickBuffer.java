@@ -0,0 +1,75 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bufor "ostatnia wartość" dla każdego symbolu, bez blokad. Wątki liczące ceny (symulacja,
+// monitor) tylko nadpisują cenę i zapalają bit "zmieniony". Wątek FX raz na klatkę zbiera
+// wyłącznie zmienione symbole - kilka zmian tego samego symbolu między klatkami daje jedną.
+public class TickBuffer {
+    public interface TickConsumer {
+        void accept(int id, double price, double change);
+    }
+
+    private final SymbolRegistry registry;
+    private final AtomicLongArray prices;
+    private final AtomicLongArray changes;
+    private final AtomicLongArray dirty;
+    private volatile TickConsumer publishListener;
+
+    // Sloty są indeksowane numerami z SymbolRegistry - capacity musi obejmować wszystkie śledzone symbole.
+    public TickBuffer(SymbolRegistry registry, int capacity) {
+        this.registry = registry;
+        prices = new AtomicLongArray(capacity);
+        changes = new AtomicLongArray(capacity);
+        dirty = new AtomicLongArray((capacity + 63) / 64);
+    }
+
+    public int size() { return prices.length(); }
+
+    // -1, jeśli symbol nie jest śledzony
+    public int indexOf(String symbol) {
+        int id = registry.idOf(symbol);
+        return id < size() ? id : -1;
+    }
+
+    // Cena startowa - bez zgłaszania zmiany do UI.
+    public void seed(int id, double price) {
+        prices.set(id, Double.doubleToRawLongBits(price));
+    }
+
+    // Ostatnia opublikowana cena (także ta jeszcze nie pobrana przez UI).
+    public double price(int id) {
+        return Double.longBitsToDouble(prices.get(id));
+    }
+
+    // Wołany przy każdej publikacji, na wątku producenta (np. sprawdzanie alertów poza wątkiem FX)
+    public void setPublishListener(TickConsumer listener) {
+        this.publishListener = listener;
+    }
+
+    public void publish(int id, double price, double change) {
+        TickConsumer listener = publishListener;
+        if (listener != null) listener.accept(id, price, change);
+        prices.set(id, Double.doubleToRawLongBits(price));
+        changes.set(id, Double.doubleToRawLongBits(change));
+        long bit = 1L << (id & 63);
+        int word = id >>> 6;
+        if ((dirty.get(word) & bit) == 0) dirty.getAndAccumulate(word, bit, (a, b) -> a | b);
+    }
+
+    // Zwraca liczbę zmienionych symboli. Koszt: O(liczba symboli / 64 + liczba zmian).
+    public int drain(TickConsumer consumer) {
+        int count = 0;
+        for (int w = 0; w < dirty.length(); w++) {
+            if (dirty.get(w) == 0) continue;
+            long bits = dirty.getAndSet(w, 0);
+            while (bits != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                consumer.accept(id, Double.longBitsToDouble(prices.get(id)), Double.longBitsToDouble(changes.get(id)));
+                count++;
+            }
+        }
+        return count;
+    }
+}
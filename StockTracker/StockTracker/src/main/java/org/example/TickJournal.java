@@ -0,0 +1,208 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Dziennik ticków na dysku: rekordy stałej długości dopisywane do plików segmentów
+// mapowanych w pamięć (FileChannel.map). Zapis to kilka putów do MappedByteBuffer - bez alokacji.
+//
+// Rekord (32 B, little endian): int id symbolu | int suma kontrolna | long epoch nanos | double cena | double zmiana
+//
+// Segment jest od razu zakładany w pełnym rozmiarze (wypełniony zerami), więc po awarii koniec danych
+// to pierwszy rekord z niezgodną sumą kontrolną - przy otwarciu dopisujemy od tego miejsca.
+// Numery symboli w dzienniku są niezależne od SymbolRegistry i zapisane w pliku symbols.txt.
+public class TickJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 32;
+
+    private static final String SEGMENT_PREFIX = "ticks-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SYMBOLS_FILE = "symbols.txt";
+    private static final long EPOCH_NANOS_BASE = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    public interface TickReader {
+        void tick(String symbol, long epochNanos, double price, double change);
+    }
+
+    private final Path dir;
+    private final long segmentSize;
+    private final int maxSegments;
+    private final SymbolRegistry registry;
+
+    private final List<String> journalSymbols = new ArrayList<>();
+    private int[] journalIds = new int[0];
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentNumber;
+    private int position;
+    private boolean failed;
+
+    public TickJournal(Path dir, long segmentSize, int maxSegments, SymbolRegistry registry) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.maxSegments = maxSegments;
+        this.registry = registry;
+        Files.createDirectories(dir);
+
+        Path symbolsFile = dir.resolve(SYMBOLS_FILE);
+        if (Files.exists(symbolsFile)) journalSymbols.addAll(Files.readAllLines(symbolsFile, StandardCharsets.UTF_8));
+
+        List<Path> segments = segments(dir);
+        if (segments.isEmpty()) {
+            openSegment(1);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            openSegment(segmentNumber(last));
+            position = validLength(segment);
+        }
+    }
+
+    // Czas bez alokacji Instant - zegar ścienny ustalony raz, dalej monotoniczny nanoTime.
+    public static long epochNanos() {
+        return EPOCH_NANOS_BASE + System.nanoTime();
+    }
+
+    public void append(int symbolId, long epochNanos, double price, double change) {
+        if (failed) return;
+        try {
+            if (position + RECORD_SIZE > segmentSize) rollover();
+            int journalId = journalId(symbolId);
+            long priceBits = Double.doubleToRawLongBits(price);
+            long changeBits = Double.doubleToRawLongBits(change);
+            segment.putInt(position, journalId);
+            segment.putInt(position + 4, checksum(journalId, epochNanos, priceBits, changeBits));
+            segment.putLong(position + 8, epochNanos);
+            segment.putLong(position + 16, priceBits);
+            segment.putLong(position + 24, changeBits);
+            position += RECORD_SIZE;
+        } catch (IOException | UncheckedIOException e) {
+            failed = true;
+            System.err.println("Dziennik ticków wyłączony: " + e);
+        }
+    }
+
+    public void flush() {
+        if (segment != null) segment.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (channel != null) channel.close();
+    }
+
+    // Odczyt wszystkich zapisanych ticków, od najstarszego segmentu.
+    public static void read(Path dir, TickReader reader) throws IOException {
+        read(dir, null, reader);
+    }
+
+    // Tylko ticki jednego symbolu (null - wszystkie). Przegląda wszystkie segmenty, rekordy innych
+    // symboli pomija po samym numerze.
+    public static void read(Path dir, String symbol, TickReader reader) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        Path symbolsFile = dir.resolve(SYMBOLS_FILE);
+        if (!Files.exists(symbolsFile)) return;
+        List<String> symbols = Files.readAllLines(symbolsFile, StandardCharsets.UTF_8);
+        int only = symbol == null ? -1 : symbols.indexOf(symbol);
+        if (symbol != null && only < 0) return;
+
+        for (Path file : segments(dir)) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                buf.order(ByteOrder.LITTLE_ENDIAN);
+                int end = validLength(buf);
+                for (int pos = 0; pos < end; pos += RECORD_SIZE) {
+                    int id = buf.getInt(pos);
+                    if (id < 0 || id >= symbols.size() || (only >= 0 && id != only)) continue;
+                    reader.tick(symbols.get(id), buf.getLong(pos + 8),
+                            Double.longBitsToDouble(buf.getLong(pos + 16)), Double.longBitsToDouble(buf.getLong(pos + 24)));
+                }
+            }
+        }
+    }
+
+    private int journalId(int symbolId) throws IOException {
+        if (symbolId >= journalIds.length) {
+            int old = journalIds.length;
+            journalIds = Arrays.copyOf(journalIds, Math.max(old * 2, symbolId + 1));
+            Arrays.fill(journalIds, old, journalIds.length, -1);
+        }
+        int id = journalIds[symbolId];
+        if (id >= 0) return id;
+
+        String symbol = registry.symbol(symbolId);
+        id = journalSymbols.indexOf(symbol);
+        if (id < 0) {
+            id = journalSymbols.size();
+            journalSymbols.add(symbol);
+            Files.writeString(dir.resolve(SYMBOLS_FILE), symbol + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        journalIds[symbolId] = id;
+        return id;
+    }
+
+    private void rollover() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(segmentNumber + 1);
+        List<Path> segments = segments(dir);
+        for (int i = 0; i < segments.size() - maxSegments; i++) Files.deleteIfExists(segments.get(i));
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path file = dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segmentNumber = number;
+        position = 0;
+    }
+
+    private static int validLength(MappedByteBuffer buf) {
+        int pos = 0;
+        int limit = buf.capacity() - buf.capacity() % RECORD_SIZE;
+        while (pos < limit) {
+            int id = buf.getInt(pos);
+            int check = buf.getInt(pos + 4);
+            if (check != checksum(id, buf.getLong(pos + 8), buf.getLong(pos + 16), buf.getLong(pos + 24))) break;
+            pos += RECORD_SIZE;
+        }
+        return pos;
+    }
+
+    // Nigdy 0 - wyzerowany (niezapisany) rekord nie przejdzie kontroli.
+    private static int checksum(int id, long nanos, long priceBits, long changeBits) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        h = (h ^ nanos) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ priceBits) * 0x94D049BB133111EBL;
+        h = (h ^ changeBits) * 0x9E3779B97F4A7C15L;
+        int c = (int) (h ^ (h >>> 32));
+        return c == 0 ? 1 : c;
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,223 @@
+package org.example;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Wykres liniowy rysowany na Canvas, z liczbową osią czasu. Punkty nie są węzłami sceny - seria to
+// PriceHistory (bufor cykliczny), a wykres tylko ją czyta.
+//
+// Decymacja M4: dla każdej kolumny pikseli zapamiętujemy pierwszy, ostatni, minimalny i maksymalny punkt,
+// więc łamana ma najwyżej 4 punkty na piksel szerokości i wygląda tak samo jak narysowana ze wszystkich
+// punktów. Koszt przerysowania to jeden przebieg po widocznych punktach + jedno strokePolyline na serię.
+//
+// Dopisanie ticka tylko oznacza wykres jako nieaktualny (markDirty); rysujemy najwyżej raz na klatkę
+// w redrawIfDirty, wołanym z AnimationTimer.
+public class TimeSeriesChart extends Region {
+    private static final Color PRICE = Color.web("#00ffaa");
+
+    private final Canvas canvas = new Canvas();
+    private final List<Line> lines = new ArrayList<>();
+    private String title = "";
+    private long rangeMillis;
+    private boolean dirty = true;
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+
+    public TimeSeriesChart() {
+        getChildren().add(canvas);
+    }
+
+    // Seria cen; usuwa nakładki
+    public void setSeries(PriceHistory price) {
+        lines.clear();
+        lines.add(new Line(price, PRICE, 2));
+        dirty = true;
+    }
+
+    public void addOverlay(PriceHistory values, Color color) {
+        lines.add(new Line(values, color, 1));
+        dirty = true;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        dirty = true;
+    }
+
+    // Widoczny zakres kończy się na ostatnim punkcie; 0 = cała historia
+    public void setRange(long rangeMillis) {
+        this.rangeMillis = rangeMillis;
+        dirty = true;
+    }
+
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public void redrawIfDirty() {
+        if (dirty && isVisible()) redraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        redraw();
+    }
+
+    private void redraw() {
+        dirty = false;
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        g.clearRect(0, 0, w, h);
+        PriceHistory price = lines.isEmpty() ? null : lines.get(0).data;
+        if (price == null || price.size() == 0) {
+            ChartAxes.title(g, title + " - brak danych");
+            return;
+        }
+        double plotW = w - ChartAxes.LEFT - ChartAxes.RIGHT;
+        double plotH = h - ChartAxes.TOP - ChartAxes.BOTTOM;
+        if (plotW <= 0 || plotH <= 0) return;
+
+        long to = price.time(price.size() - 1);
+        long from = rangeMillis > 0 ? to - rangeMillis : price.time(0);
+        if (to - from < 1_000) from = to - 1_000;
+        int cols = (int) Math.ceil(plotW);
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        for (Line line : lines) {
+            line.columns.aggregate(line.data, from, to, cols);
+            lo = Math.min(lo, line.columns.low);
+            hi = Math.max(hi, line.columns.high);
+        }
+        if (lo > hi) {
+            ChartAxes.title(g, title);
+            return;
+        }
+        double pad = Math.max((hi - lo) * 0.05, Math.abs(hi) * 0.0005);
+        if (pad == 0) pad = 1;
+        lo -= pad;
+        hi += pad;
+
+        ChartAxes.priceAxis(g, lo, hi, plotW, plotH);
+        ChartAxes.timeAxis(g, from, to, plotW, plotH);
+        ChartAxes.title(g, title);
+
+        if (xs.length < cols * 4) {
+            xs = new double[cols * 4];
+            ys = new double[cols * 4];
+        }
+        double yScale = plotH / (hi - lo);
+        double bottom = ChartAxes.TOP + plotH;
+        // nakładki pod ceną
+        for (int k = lines.size() - 1; k >= 0; k--) {
+            Line line = lines.get(k);
+            int n = line.columns.polyline(xs, ys, ChartAxes.LEFT, bottom, lo, yScale);
+            g.setStroke(line.color);
+            g.setLineWidth(line.width);
+            g.strokePolyline(xs, ys, n);
+        }
+    }
+
+    private static final class Line {
+        final PriceHistory data;
+        final Color color;
+        final double width;
+        final Columns columns = new Columns();
+
+        Line(PriceHistory data, Color color, double width) {
+            this.data = data;
+            this.color = color;
+            this.width = width;
+        }
+    }
+
+    // Agregacja punktów do kolumn pikseli - tablice używane ponownie przy każdym przerysowaniu.
+    // Publiczna, żeby dało się ją zmierzyć bez toolkitu JavaFX (StockTracker-bench).
+    public static final class Columns {
+        int cols;
+        int[] count = new int[0];
+        double[] first = new double[0];
+        double[] last = new double[0];
+        double[] min = new double[0];
+        double[] max = new double[0];
+        boolean[] minFirst = new boolean[0];
+        double low;
+        double high;
+
+        public void aggregate(PriceHistory data, long from, long to, int cols) {
+            if (count.length < cols) {
+                count = new int[cols];
+                first = new double[cols];
+                last = new double[cols];
+                min = new double[cols];
+                max = new double[cols];
+                minFirst = new boolean[cols];
+            }
+            this.cols = cols;
+            Arrays.fill(count, 0, cols, 0);
+            low = Double.POSITIVE_INFINITY;
+            high = Double.NEGATIVE_INFINITY;
+            double scale = (double) cols / (to - from);
+            int size = data.size();
+            for (int i = firstFrom(data, from); i < size; i++) {
+                long t = data.time(i);
+                if (t > to) break;
+                double v = data.price(i);
+                int c = Math.min(cols - 1, (int) ((t - from) * scale));
+                if (count[c]++ == 0) {
+                    first[c] = v;
+                    min[c] = v;
+                    max[c] = v;
+                    minFirst[c] = true;
+                } else if (v < min[c]) {
+                    min[c] = v;
+                    minFirst[c] = false;
+                } else if (v > max[c]) {
+                    max[c] = v;
+                    minFirst[c] = true;
+                }
+                last[c] = v;
+                if (v < low) low = v;
+                if (v > high) high = v;
+            }
+        }
+
+        // Punkty łamanej w kolejności czasu: pierwszy, min i max (w kolejności wystąpienia), ostatni
+        public int polyline(double[] xs, double[] ys, double left, double bottom, double lo, double yScale) {
+            int n = 0;
+            for (int c = 0; c < cols; c++) {
+                if (count[c] == 0) continue;
+                double x = left + c + 0.5;
+                double a = minFirst[c] ? min[c] : max[c];
+                double b = minFirst[c] ? max[c] : min[c];
+                xs[n] = x; ys[n++] = bottom - (first[c] - lo) * yScale;
+                if (count[c] > 1) {
+                    xs[n] = x; ys[n++] = bottom - (a - lo) * yScale;
+                    xs[n] = x; ys[n++] = bottom - (b - lo) * yScale;
+                    xs[n] = x; ys[n++] = bottom - (last[c] - lo) * yScale;
+                }
+            }
+            return n;
+        }
+
+        // Indeks pierwszego punktu nie wcześniejszego niż from (czasy ticków rosną)
+        private static int firstFrom(PriceHistory data, long from) {
+            int lo = 0;
+            int hi = data.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (data.time(mid) < from) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
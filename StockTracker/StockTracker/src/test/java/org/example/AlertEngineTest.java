@@ -0,0 +1,278 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertEngineTest {
+    private static final int SYMBOL = 3;
+
+    private static List<AlertEngine.Fired> drain(AlertEngine engine) {
+        List<AlertEngine.Fired> fired = new ArrayList<>();
+        engine.drainFired(fired::add);
+        return fired;
+    }
+
+    @Test
+    void aboveFiresOnceOnUpwardCrossing() {
+        AlertEngine engine = new AlertEngine();
+        int id = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 100, 90);
+
+        engine.onPrice(SYMBOL, 100);
+        assertFalse(engine.hasFired());
+        engine.onPrice(SYMBOL, 100.5);
+        engine.onPrice(SYMBOL, 99);
+        engine.onPrice(SYMBOL, 101);
+
+        assertEquals(List.of(new AlertEngine.Fired(id, SYMBOL, AlertEngine.Type.ABOVE, 100, 100.5)), drain(engine));
+        assertEquals(List.of(), engine.activeIds(SYMBOL));
+    }
+
+    @Test
+    void belowFiresOnceOnDownwardCrossing() {
+        AlertEngine engine = new AlertEngine();
+        int id = engine.add(SYMBOL, AlertEngine.Type.BELOW, 50, 60);
+
+        engine.onPrice(SYMBOL, 55);
+        engine.onPrice(SYMBOL, 49);
+        engine.onPrice(SYMBOL, 48);
+
+        assertEquals(List.of(new AlertEngine.Fired(id, SYMBOL, AlertEngine.Type.BELOW, 50, 49)), drain(engine));
+    }
+
+    @Test
+    void oneTickFiresAllCrossedLevelsInOrder() {
+        AlertEngine engine = new AlertEngine();
+        int a = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 103, 100);
+        int b = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 101, 100);
+        int c = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 110, 100);
+
+        engine.onPrice(SYMBOL, 105);
+
+        assertEquals(List.of(b, a), drain(engine).stream().map(AlertEngine.Fired::alertId).toList());
+        assertEquals(List.of(c), engine.activeIds(SYMBOL));
+    }
+
+    @Test
+    void crossingRearmsInBothDirections() {
+        AlertEngine engine = new AlertEngine();
+        int id = engine.add(SYMBOL, AlertEngine.Type.CROSSING, 100, 95);
+
+        engine.onPrice(SYMBOL, 101);
+        engine.onPrice(SYMBOL, 102);
+        engine.onPrice(SYMBOL, 99);
+        engine.onPrice(SYMBOL, 98);
+        engine.onPrice(SYMBOL, 100.5);
+
+        List<AlertEngine.Fired> fired = drain(engine);
+        assertEquals(List.of(101.0, 99.0, 100.5), fired.stream().map(AlertEngine.Fired::price).toList());
+        assertTrue(fired.stream().allMatch(f -> f.alertId() == id));
+        assertEquals(List.of(id), engine.activeIds(SYMBOL));
+    }
+
+    @Test
+    void percentMoveFiresOnceAndDropsOtherSide() {
+        AlertEngine engine = new AlertEngine();
+        int id = engine.add(SYMBOL, AlertEngine.Type.PERCENT_MOVE, 5, 100);
+
+        engine.onPrice(SYMBOL, 104);
+        engine.onPrice(SYMBOL, 94);
+        engine.onPrice(SYMBOL, 106);
+
+        List<AlertEngine.Fired> fired = drain(engine);
+        assertEquals(1, fired.size());
+        assertEquals(id, fired.get(0).alertId());
+        assertEquals(94, fired.get(0).price());
+        assertEquals(List.of(), engine.activeIds(SYMBOL));
+    }
+
+    @Test
+    void removedAlertNeverFires() {
+        AlertEngine engine = new AlertEngine();
+        int keep = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 100, 90);
+        int gone = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 95, 90);
+        int cross = engine.add(SYMBOL, AlertEngine.Type.CROSSING, 92, 90);
+        engine.remove(gone);
+        engine.remove(cross);
+        engine.remove(gone);
+
+        engine.onPrice(SYMBOL, 120);
+
+        assertEquals(List.of(keep), drain(engine).stream().map(AlertEngine.Fired::alertId).toList());
+    }
+
+    @Test
+    void removeAllClearsSymbol() {
+        AlertEngine engine = new AlertEngine();
+        engine.add(SYMBOL, AlertEngine.Type.ABOVE, 100, 90);
+        engine.add(SYMBOL, AlertEngine.Type.PERCENT_MOVE, 1, 90);
+        int other = engine.add(SYMBOL + 1, AlertEngine.Type.ABOVE, 100, 90);
+
+        engine.removeAll(SYMBOL);
+        engine.onPrice(SYMBOL, 200);
+        engine.onPrice(SYMBOL, 1);
+        engine.onPrice(SYMBOL + 1, 200);
+
+        assertEquals(List.of(other), drain(engine).stream().map(AlertEngine.Fired::alertId).toList());
+    }
+
+    // Numery usuniętych i odpalonych alertów wracają do puli - długa sesja nie rozdyma tablic,
+    // a removeAll przegląda tylko alerty swojego symbolu
+    @Test
+    void freedIdsAreReused() {
+        AlertEngine engine = new AlertEngine();
+        int kept = engine.add(SYMBOL + 1, AlertEngine.Type.ABOVE, 500, 100);
+        for (int i = 0; i < 100_000; i++) {
+            engine.add(SYMBOL, AlertEngine.Type.BELOW, 50, 60);
+            engine.add(SYMBOL, AlertEngine.Type.CROSSING, 70, 60);
+            engine.removeAll(SYMBOL);
+        }
+        int fired = engine.add(SYMBOL, AlertEngine.Type.ABOVE, 100, 90);
+        engine.onPrice(SYMBOL, 101);
+        drain(engine);
+
+        int next = engine.add(SYMBOL, AlertEngine.Type.BELOW, 10, 20);
+        assertTrue(next <= 2, "numer " + next);
+        assertEquals(List.of(next), engine.activeIds(SYMBOL));
+        assertEquals(List.of(kept), engine.activeIds(SYMBOL + 1));
+        // stary próg 100 nie może odpalić nowego alertu o tym samym numerze
+        engine.onPrice(SYMBOL, 150);
+        assertFalse(engine.hasFired());
+        assertTrue(fired <= 2);
+    }
+
+    // Losowe dodawanie, usuwanie i ceny na kilku symbolach wobec naiwnego modelu - z ponownym użyciem numerów
+    @Test
+    void engineMatchesNaiveModelWithRecycledIds() {
+        record Model(int id, int symbol, AlertEngine.Type type, double level) { }
+        AlertEngine engine = new AlertEngine();
+        List<Model> model = new ArrayList<>();
+        double[] prices = {50, 50, 50, 50};
+        SplittableRandom random = new SplittableRandom(5);
+
+        for (int step = 0; step < 100_000; step++) {
+            int symbol = random.nextInt(prices.length);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                AlertEngine.Type type = random.nextBoolean() ? AlertEngine.Type.ABOVE : AlertEngine.Type.BELOW;
+                double level = random.nextInt(100) + 0.5;
+                int id = engine.add(symbol, type, level, prices[symbol]);
+                assertTrue(model.stream().noneMatch(m -> m.id() == id), "numer " + id + " wciąż aktywny");
+                model.add(new Model(id, symbol, type, level));
+            } else if (op < 5) {
+                List<Integer> ids = engine.activeIds(symbol);
+                if (!ids.isEmpty()) {
+                    int id = ids.get(random.nextInt(ids.size()));
+                    engine.remove(id);
+                    model.removeIf(m -> m.id() == id);
+                }
+            } else if (op < 6) {
+                engine.removeAll(symbol);
+                model.removeIf(m -> m.symbol() == symbol);
+            } else {
+                double price = random.nextInt(100);
+                prices[symbol] = price;
+                engine.onPrice(symbol, price);
+                List<Integer> expected = model.stream()
+                        .filter(m -> m.symbol() == symbol && (m.type() == AlertEngine.Type.ABOVE ? price > m.level() : price < m.level()))
+                        .map(Model::id).sorted().toList();
+                model.removeIf(m -> expected.contains(m.id()));
+                assertEquals(expected, drain(engine).stream().map(AlertEngine.Fired::alertId).sorted().toList());
+            }
+            List<Integer> expectedActive = model.stream().filter(m -> m.symbol() == symbol).map(Model::id).toList();
+            assertEquals(expectedActive, engine.activeIds(symbol));
+        }
+    }
+
+    @Test
+    void unknownSymbolIsIgnored() {
+        AlertEngine engine = new AlertEngine();
+        engine.onPrice(1000, 1);
+        assertFalse(engine.hasFired());
+    }
+
+    @Test
+    void bookRemoveDuringScan() {
+        AlertEngine.ThresholdBook book = new AlertEngine.ThresholdBook();
+        for (int i = 1; i <= 10; i++) book.insert(i, i);
+        List<Integer> popped = new ArrayList<>();
+
+        // zdjęcie progu 1 usuwa jeszcze niezdjęty próg 3 - skan ma go pominąć
+        book.popBelow(5.5, id -> {
+            popped.add(id);
+            if (id == 1) book.remove(3);
+        });
+
+        assertEquals(List.of(1, 2, 4, 5), popped);
+        assertEquals(5, book.size());
+        assertEquals(6, book.lowest());
+        assertEquals(10, book.highest());
+    }
+
+    @Test
+    void bookInsertDuringScanOnOtherEnd() {
+        AlertEngine.ThresholdBook book = new AlertEngine.ThresholdBook();
+        for (int i = 1; i <= 4; i++) book.insert(i * 10, i);
+        List<Integer> popped = new ArrayList<>();
+
+        book.popAbove(25, id -> {
+            popped.add(id);
+            if (id == 4) book.insert(5, 99);
+        });
+
+        assertEquals(List.of(4, 3), popped);
+        assertEquals(3, book.size());
+        assertEquals(5, book.lowest());
+        assertEquals(20, book.highest());
+    }
+
+    // Losowe wstawianie, zdejmowanie z obu końców i usuwanie wobec naiwnej posortowanej listy -
+    // wymusza wielokrotne powiększanie i kompaktowanie tablic
+    @Test
+    void bookMatchesNaiveModelThroughGrowAndCompaction() {
+        record Level(double level, int id) { }
+        AlertEngine.ThresholdBook book = new AlertEngine.ThresholdBook();
+        List<Level> model = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(11);
+        int nextId = 0;
+
+        for (int step = 0; step < 200_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 5 || model.isEmpty()) {
+                double level = random.nextInt(1000) / 10.0;
+                book.insert(level, nextId);
+                model.add(new Level(level, nextId++));
+            } else if (op < 7) {
+                double price = random.nextInt(1000) / 10.0;
+                List<Integer> popped = new ArrayList<>();
+                book.popBelow(price, popped::add);
+                model.sort(Comparator.comparingDouble(Level::level));
+                List<Integer> expected = model.stream().filter(l -> l.level() < price).map(Level::id).toList();
+                model.removeIf(l -> l.level() < price);
+                assertEquals(expected.size(), popped.size());
+                assertEquals(new HashSet<>(expected), new HashSet<>(popped));
+            } else if (op < 9) {
+                double price = random.nextInt(1000) / 10.0;
+                List<Integer> popped = new ArrayList<>();
+                book.popAbove(price, popped::add);
+                List<Integer> expected = model.stream().filter(l -> l.level() > price).map(Level::id).toList();
+                model.removeIf(l -> l.level() > price);
+                assertEquals(new HashSet<>(expected), new HashSet<>(popped));
+            } else {
+                Level victim = model.remove(random.nextInt(model.size()));
+                book.remove(victim.id());
+            }
+            assertEquals(model.size(), book.size());
+            double min = model.stream().mapToDouble(Level::level).min().orElse(Double.POSITIVE_INFINITY);
+            double max = model.stream().mapToDouble(Level::level).max().orElse(Double.NEGATIVE_INFINITY);
+            assertEquals(min, book.lowest());
+            assertEquals(max, book.highest());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// CryptoStream na lokalnej atrapie WebSocket (StubStreamServer z StubQuoteServer) - bez internetu.
+class CryptoStreamTest {
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final TaskScheduler scheduler = new TaskScheduler("test", 2);
+    private final AtomicInteger trades = new AtomicInteger();
+    private StubQuoteServer stub;
+    private StubStreamServer streamStub;
+    private CryptoStream stream;
+    private StockService service;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        // zerwanie bez ramki close klient HTTP czasem zauważa dopiero po ciszy w strumieniu - wtedy ratuje
+        // stream.stale.seconds, tu skrócone z 30 s do 1 s (atrapa wysyła 20 transakcji na sekundę)
+        System.setProperty("stream.stale.seconds", "1");
+        stub = StubQuoteServer.start(0);
+        streamStub = stub.stream();
+    }
+
+    @AfterEach
+    void stopAll() {
+        if (stream != null) stream.stop();
+        if (service != null) service.close();
+        scheduler.shutdown(1, TimeUnit.SECONDS);
+        stub.stop();
+        System.clearProperty("stream.stale.seconds");
+    }
+
+    private CryptoStream startCounting() {
+        stream = new CryptoStream(httpClient, streamStub.url(), List.of("btcusdt"), (pair, priceUsd) -> {
+            assertEquals(0, pair);
+            trades.incrementAndGet();
+        });
+        stream.start(scheduler);
+        return stream;
+    }
+
+    private static void await(String what, long timeoutMillis, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Nie doczekano się: " + what);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void tradeReachesTickBuffer() throws Exception {
+        SymbolRegistry registry = new SymbolRegistry();
+        int btc = registry.intern("BITCOIN");
+        TickBuffer ticks = new TickBuffer(registry, registry.size());
+        service = new StockService(stub.endpoints());
+
+        CryptoStream s = service.startMarketStream(ticks, scheduler);
+        await("ticku z transakcji", 5000, () -> ticks.price(btc) > 0);
+
+        assertTrue(s.isLive());
+        // 65000 USD z atrapy po startowym kursie 4.0 PLN, zaokrąglone do grosza
+        double price = ticks.price(btc);
+        assertEquals(65000.0 * 4.0, price, 65000.0 * 4.0 * 0.05);
+        assertEquals(price, Math.round(price * 100.0) / 100.0);
+        // publish ustawia cenę przed bitem zmiany - drain może chwilę nic nie widzieć
+        await("ticku w paczce drain", 1000, () -> ticks.drain((id, p, change) -> assertEquals(btc, id)) == 1);
+    }
+
+    @Test
+    void reconnectsAndResubscribesAfterDisconnect() throws Exception {
+        CryptoStream s = startCounting();
+        await("pierwszych transakcji", 5000, () -> trades.get() > 0);
+        assertEquals(1, s.connections());
+
+        streamStub.disconnectAll();
+        await("zerwania", 2000, () -> !s.isLive());
+        await("ponownego połączenia", 5000, () -> s.connections() == 2 && streamStub.connections() == 1);
+
+        // transakcje płyną dalej tylko po ponownej subskrypcji - serwer nie pamięta par z poprzedniego połączenia
+        int before = trades.get();
+        await("transakcji po ponownym połączeniu", 5000, () -> trades.get() > before);
+        assertTrue(s.isLive());
+        assertEquals(2, streamStub.accepted());
+    }
+
+    @Test
+    void backsOffWhileServerRejects() throws Exception {
+        CryptoStream s = startCounting();
+        await("pierwszych transakcji", 5000, () -> trades.get() > 0);
+
+        streamStub.setRejecting(true);
+        long accepted = streamStub.accepted();
+        streamStub.disconnectAll();
+
+        // chwile kolejnych odrzuconych prób połączenia
+        long[] at = new long[3];
+        for (int i = 0; i < at.length; i++) {
+            long expected = accepted + i + 1;
+            await("próby " + (i + 1), 10_000, () -> streamStub.accepted() >= expected);
+            at[i] = System.currentTimeMillis();
+        }
+        // po próbie 1 odstęp 1 s, po próbie 2 - 2 s, z rozrzutem od połowy; bez odstępów zadanie
+        // co 250 ms łączyłoby się co ~250 ms
+        assertTrue(at[1] - at[0] >= 450, (at[1] - at[0]) + " ms");
+        assertTrue(at[2] - at[1] >= 950, (at[2] - at[1]) + " ms");
+
+        // odstęp urósł do 4 s, więc powrót serwera widać najpóźniej po kilku sekundach
+        streamStub.setRejecting(false);
+        int before = trades.get();
+        await("transakcji po powrocie serwera", 10_000, () -> trades.get() > before);
+        assertTrue(s.isLive());
+    }
+
+    @Test
+    void monitorSkipsRestWhileStreamIsLive() throws Exception {
+        SymbolRegistry registry = new SymbolRegistry();
+        int btc = registry.intern("BITCOIN");
+        TickBuffer ticks = new TickBuffer(registry, registry.size());
+        service = new StockService(stub.endpoints());
+
+        CryptoStream s = service.startMarketStream(ticks, scheduler);
+        await("ticku z transakcji", 5000, () -> ticks.price(btc) > 0);
+        TaskScheduler.Task monitor = service.startMarketMonitor(ticks, scheduler);
+        await("pierwszego przebiegu monitora", 5000, () -> monitor.runs() >= 1);
+
+        assertTrue(s.isLive());
+        assertEquals(0, stub.requestCount("binance"));
+        assertEquals(0, stub.requestCount("coincap"));
+
+        // strumień milczy - następny przebieg (co 5 s) wraca do REST
+        streamStub.setRejecting(true);
+        streamStub.disconnectAll();
+        await("zapytania REST", 8000, () -> stub.requestCount("binance") > 0);
+        assertFalse(s.isLive());
+    }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastQuoteParserTest {
+
+    private static double parse(String s) {
+        byte[] b = s.getBytes(StandardCharsets.US_ASCII);
+        return FastQuoteParser.parseDecimal(b, 0, b.length);
+    }
+
+    // Wynik ma być bit w bit taki sam jak Double.parseDouble - także na ścieżce dla długich liczb
+    @Test
+    void matchesParseDoubleOnMillionRandomInputs() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int n = 0; n < 1_000_000; n++) {
+            String s = randomDecimal(random);
+            double expected = Double.parseDouble(s);
+            double actual = parse(s);
+            if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(actual)) {
+                fail("\"" + s + "\": " + actual + " zamiast " + expected);
+            }
+        }
+    }
+
+    private static String randomDecimal(SplittableRandom random) {
+        StringBuilder s = new StringBuilder();
+        if (random.nextInt(10) == 0) s.append(random.nextBoolean() ? '-' : '+');
+        // do 22 cyfr - powyżej 15 znaczących parser przechodzi na Double.parseDouble
+        int intDigits = random.nextInt(0, 12);
+        int fracDigits = random.nextInt(intDigits == 0 ? 1 : 0, 12);
+        for (int i = 0; i < intDigits; i++) s.append((char) ('0' + random.nextInt(10)));
+        if (fracDigits > 0) {
+            s.append('.');
+            for (int i = 0; i < fracDigits; i++) s.append((char) ('0' + random.nextInt(10)));
+        }
+        if (random.nextInt(8) == 0) {
+            s.append(random.nextBoolean() ? 'e' : 'E');
+            if (random.nextBoolean()) s.append(random.nextBoolean() ? '-' : '+');
+            s.append(random.nextInt(0, 30));
+        }
+        return s.toString();
+    }
+
+    @Test
+    void typicalQuotes() {
+        assertEquals(65000.01, parse("65000.01"));
+        assertEquals(3.9812, parse("3.9812"));
+        assertEquals(0.00001234, parse("0.00001234"));
+        assertEquals(-1.5, parse("-1.5"));
+        assertEquals(1.2e-7, parse("1.2E-7"));
+        assertEquals(123456789.123456789, parse("123456789.123456789"));
+    }
+
+    @Test
+    void rejectsGarbage() {
+        for (String s : List.of("", "N/D", "-", ".", "1.2.3", "12a", "1e", "1e+")) {
+            assertTrue(Double.isNaN(parse(s)), s);
+        }
+    }
+
+    @Test
+    void jsonNumberQuotedAndBare() {
+        byte[] json = "{\"symbol\":\"BTCUSDT\",\"price\":\"65000.12000000\",\"mid\": 3.98}".getBytes();
+
+        assertEquals(65000.12, FastQuoteParser.jsonNumber(json, json.length, FastQuoteParser.jsonKey("price")));
+        assertEquals(3.98, FastQuoteParser.jsonNumber(json, json.length, FastQuoteParser.jsonKey("mid")));
+        assertTrue(Double.isNaN(FastQuoteParser.jsonNumber(json, json.length, FastQuoteParser.jsonKey("missing"))));
+        assertTrue(Double.isNaN(FastQuoteParser.jsonNumber(json, json.length, FastQuoteParser.jsonKey("symbol"))));
+    }
+
+    @Test
+    void csvRowsSkipHeaderNdAndTruncatedLines() {
+        byte[] csv = ("Symbol,Data,Zamkniecie\r\nPKO,2024-01-05,58.1\r\nZAB,N/D,N/D\r\nCCC,2024\r\nKGH,2024-01-05,115")
+                .getBytes();
+        List<String> rows = new ArrayList<>();
+
+        int n = FastQuoteParser.forEachCsvRow(csv, csv.length, 2, (buf, from, to, value) ->
+                rows.add(new String(buf, from, to - from) + "=" + String.format(Locale.ROOT, "%.1f", value)));
+
+        assertEquals(2, n);
+        assertEquals(List.of("PKO=58.1", "KGH=115.0"), rows);
+    }
+
+    @Test
+    void equalsIgnoreCaseOnlyFoldsLetters() {
+        byte[] buf = "BtcUsdt@[".getBytes();
+
+        assertTrue(FastQuoteParser.equalsIgnoreCase(buf, 0, 7, "btcusdt"));
+        assertFalse(FastQuoteParser.equalsIgnoreCase(buf, 0, 7, "btcusd"));
+        // '@' i '`' różnią się tylko bitem 0x20, ale to nie litery
+        assertFalse(FastQuoteParser.equalsIgnoreCase(buf, 7, 8, "`"));
+        assertFalse(FastQuoteParser.equalsIgnoreCase(buf, 8, 9, "{"));
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Wskaźniki przyrostowe wobec naiwnego przeliczenia z pełnej serii cen
+class IndicatorEngineTest {
+    private static final int PERIOD = 20;
+    private static final int RSI_PERIOD = 14;
+    private static final double BAND = 2.0;
+    private static final int DEPTH = 50;
+    private static final int TICKS = 200_000;
+    private static final int ID = 5;
+
+    private static void assertClose(double expected, double actual, String what) {
+        if (Double.isNaN(expected)) {
+            assertTrue(Double.isNaN(actual), what + ": " + actual + " zamiast NaN");
+            return;
+        }
+        assertEquals(expected, actual, 1e-9 * Math.max(1, Math.abs(expected)), what);
+    }
+
+    @Test
+    void matchesNaiveRecomputation() {
+        IndicatorEngine engine = new IndicatorEngine(PERIOD, RSI_PERIOD, BAND, DEPTH);
+        SplittableRandom random = new SplittableRandom(9);
+        double[] prices = new double[TICKS];
+        double[] volumes = new double[TICKS];
+        double price = 100;
+        double pv = 0;
+        double volume = 0;
+
+        for (int t = 0; t < TICKS; t++) {
+            price *= Math.exp(0.002 * random.nextGaussian());
+            // co jakiś czas ta sama cena - RSI bez zmian, MIN/MAX z remisami
+            if (t > 0 && random.nextInt(10) == 0) price = prices[t - 1];
+            prices[t] = price;
+            volumes[t] = 1 + random.nextInt(100);
+            engine.onTick(ID, price, volumes[t]);
+            pv += price * volumes[t];
+            volume += volumes[t];
+
+            int from = Math.max(0, t - PERIOD + 1);
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            for (int i = from; i <= t; i++) {
+                min = Math.min(min, prices[i]);
+                max = Math.max(max, prices[i]);
+                sum += prices[i];
+            }
+            String at = "tick " + t;
+            assertEquals(min, engine.value(ID, IndicatorEngine.Kind.MIN), at);
+            assertEquals(max, engine.value(ID, IndicatorEngine.Kind.MAX), at);
+            assertClose(pv / volume, engine.value(ID, IndicatorEngine.Kind.VWAP), at + " VWAP");
+
+            if (t < PERIOD - 1) {
+                assertTrue(Double.isNaN(engine.value(ID, IndicatorEngine.Kind.SMA)), at);
+                assertTrue(Double.isNaN(engine.value(ID, IndicatorEngine.Kind.BOLLINGER_UPPER)), at);
+            } else {
+                double mean = sum / PERIOD;
+                double var = 0;
+                for (int i = from; i <= t; i++) var += (prices[i] - mean) * (prices[i] - mean);
+                double sd = Math.sqrt(var / PERIOD);
+                assertClose(mean, engine.value(ID, IndicatorEngine.Kind.SMA), at + " SMA");
+                // sd z sumy kwadratów traci cyfry przy małej zmienności - porównanie z dokładnością do 1e-6 ceny
+                assertEquals(mean + BAND * sd, engine.value(ID, IndicatorEngine.Kind.BOLLINGER_UPPER), 1e-6 * mean, at);
+                assertEquals(mean - BAND * sd, engine.value(ID, IndicatorEngine.Kind.BOLLINGER_LOWER), 1e-6 * mean, at);
+            }
+
+            // EMA i RSI zależą od całej serii - przeliczenie od zera co 997 ticków i w pierwszych krokach
+            if (t < 50 || t % 997 == 0) {
+                assertClose(naiveEma(prices, t), engine.value(ID, IndicatorEngine.Kind.EMA), at + " EMA");
+                assertClose(naiveRsi(prices, t), engine.value(ID, IndicatorEngine.Kind.RSI), at + " RSI");
+            }
+        }
+
+        // historia: ostatnie DEPTH wartości, najstarsza pod 0
+        assertEquals(DEPTH, engine.historySize(ID));
+        assertEquals(engine.value(ID, IndicatorEngine.Kind.SMA), engine.history(ID, IndicatorEngine.Kind.SMA, DEPTH - 1));
+        double oldest = 0;
+        for (int i = TICKS - DEPTH - PERIOD + 1; i <= TICKS - DEPTH; i++) oldest += prices[i];
+        assertClose(oldest / PERIOD, engine.history(ID, IndicatorEngine.Kind.SMA, 0), "najstarsza SMA");
+    }
+
+    private static double naiveEma(double[] prices, int t) {
+        double alpha = 2.0 / (PERIOD + 1);
+        double ema = prices[0];
+        for (int i = 1; i <= t; i++) ema = ema + alpha * (prices[i] - ema);
+        return ema;
+    }
+
+    // Wilder: pierwsze RSI_PERIOD zmian uśrednione, dalej wygładzanie (n-1)/n
+    private static double naiveRsi(double[] prices, int t) {
+        if (t < RSI_PERIOD) return Double.NaN;
+        double gain = 0;
+        double loss = 0;
+        for (int i = 1; i <= RSI_PERIOD; i++) {
+            double d = prices[i] - prices[i - 1];
+            gain += Math.max(d, 0) / RSI_PERIOD;
+            loss += Math.max(-d, 0) / RSI_PERIOD;
+        }
+        for (int i = RSI_PERIOD + 1; i <= t; i++) {
+            double d = prices[i] - prices[i - 1];
+            gain = (gain * (RSI_PERIOD - 1) + Math.max(d, 0)) / RSI_PERIOD;
+            loss = (loss * (RSI_PERIOD - 1) + Math.max(-d, 0)) / RSI_PERIOD;
+        }
+        return loss == 0 ? 100 : 100 - 100 / (1 + gain / loss);
+    }
+
+    @Test
+    void rsiIsHundredWithoutLosses() {
+        IndicatorEngine engine = new IndicatorEngine(PERIOD, RSI_PERIOD, BAND, DEPTH);
+        for (int t = 0; t <= RSI_PERIOD; t++) engine.onTick(ID, 100 + t, 1);
+
+        assertEquals(100, engine.value(ID, IndicatorEngine.Kind.RSI));
+    }
+
+    @Test
+    void unknownSymbolIsNaN() {
+        IndicatorEngine engine = new IndicatorEngine(PERIOD, RSI_PERIOD, BAND, DEPTH);
+
+        assertTrue(Double.isNaN(engine.value(1000, IndicatorEngine.Kind.SMA)));
+        assertTrue(Double.isNaN(engine.value(-1, IndicatorEngine.Kind.EMA)));
+        assertEquals(0, engine.historySize(3));
+    }
+}
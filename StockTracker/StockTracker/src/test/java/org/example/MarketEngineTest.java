@@ -0,0 +1,169 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Silnik bez API (stockService = null) - tylko symulacja i drain na wątku testu
+class MarketEngineTest {
+    private MarketEngine engine;
+
+    @AfterEach
+    void close() throws Exception {
+        System.clearProperty("sim.rate.hz");
+        System.clearProperty("journal.dir");
+        if (engine != null) engine.close();
+    }
+
+    @Test
+    void simulatesStocksAndCurrencies() throws Exception {
+        System.setProperty("sim.rate.hz", "200");
+        engine = new MarketEngine(null, Money.parseAmount("1000"), Runnable::run);
+        engine.load(List.of(new Quote("MET_STOCK", 100.0)),
+                List.of(new Quote("MET_USD/PLN", 4.0), new Quote("MET_JPY/PLN", -1.0)));
+        engine.start();
+        Thread.sleep(300);
+
+        Map<String, Double> last = new HashMap<>();
+        engine.drain(new MarketEngine.Listener() {
+            @Override
+            public void onTick(int id, double price, double change) {
+                last.put(SymbolRegistry.DEFAULT.symbol(id), price);
+            }
+        });
+
+        assertTrue(last.containsKey("MET_STOCK"));
+        assertTrue(last.containsKey("MET_USD/PLN"));
+        // kurs, którego NBP nie podał (-1), nie jest symulowany
+        assertFalse(last.containsKey("MET_JPY/PLN"));
+        // waluta wraca do średniej z małą zmiennością - po 0.3 s nadal blisko kursu startowego
+        assertEquals(4.0, last.get("MET_USD/PLN"), 0.05);
+        int usd = SymbolRegistry.DEFAULT.idOf("MET_USD/PLN");
+        assertEquals(last.get("MET_USD/PLN"), engine.instruments().price(usd));
+    }
+
+    @Test
+    void smallUniverseTracksEverySymbol() {
+        engine = new MarketEngine(null, 0, Runnable::run);
+        engine.load(List.of(new Quote("MET_A", 10.0), new Quote("MET_B", 20.0)), List.of());
+        int a = SymbolRegistry.DEFAULT.idOf("MET_A");
+        int b = SymbolRegistry.DEFAULT.idOf("MET_B");
+
+        engine.ticks().publish(a, 10.5, 5);
+        engine.ticks().publish(b, 19.0, -5);
+        engine.drain(new MarketEngine.Listener() { });
+
+        assertTrue(engine.isTracked(b));
+        assertEquals(1, engine.history().get(a).size());
+        assertEquals(1, engine.history().get(b).size());
+    }
+
+    @Test
+    void trackAllStopsAboveHundredInstruments() throws Exception {
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < 101; i++) quotes.add(new Quote(String.format("MET_TA%03d", i), 10.0));
+        engine = new MarketEngine(null, 0, Runnable::run);
+        engine.load(quotes, List.of());
+        assertFalse(engine.isTracked(SymbolRegistry.DEFAULT.idOf("MET_TA000")));
+
+        MarketEngine small = new MarketEngine(null, 0, Runnable::run);
+        small.load(quotes.subList(0, 100), List.of());
+        assertTrue(small.isTracked(SymbolRegistry.DEFAULT.idOf("MET_TA000")));
+        small.close();
+    }
+
+    // 50 tys. instrumentów, każdy z tickiem: historia, wskaźniki i świece tylko dla symbolu z wykresu,
+    // a cały silnik (kursy, bufor ticków, portfel, rejestr) mieści się w kilkuset bajtach na instrument
+    @Test
+    void largeUniverseKeepsPerInstrumentFootprintSmall() {
+        int n = 50_000;
+        List<Quote> quotes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) quotes.add(new Quote(String.format("MET_FP%05d", i), 100.0));
+        long before = usedHeap();
+
+        engine = new MarketEngine(null, 0, Runnable::run);
+        engine.load(quotes, List.of());
+        int charted = SymbolRegistry.DEFAULT.idOf("MET_FP00007");
+        int other = SymbolRegistry.DEFAULT.idOf("MET_FP00008");
+        engine.track(charted);
+        for (int round = 0; round < 2; round++) {
+            for (Quote q : quotes) engine.ticks().publish(SymbolRegistry.DEFAULT.idOf(q.symbol()), 100.0 + round, round);
+            assertEquals(n, engine.drain(new MarketEngine.Listener() { }));
+        }
+
+        assertTrue(engine.isTracked(charted));
+        assertFalse(engine.isTracked(other));
+        assertEquals(2, engine.history().get(charted).size());
+        assertNotNull(engine.candles().get(charted, CandleAggregator.Resolution.S1));
+        assertEquals(2, engine.indicators().historySize(charted));
+        assertNull(engine.history().get(other));
+        assertNull(engine.candles().get(other, CandleAggregator.Resolution.S1));
+        assertEquals(0, engine.indicators().historySize(other));
+        assertEquals(101.0, engine.instruments().price(other));
+
+        long perInstrument = (usedHeap() - before) / n;
+        Reference.reachabilityFence(engine);
+        Reference.reachabilityFence(quotes);
+        // sama historia jednego symbolu to ~57 KB - próg 2 KB łapie powrót do stanu dla każdego symbolu
+        assertTrue(perInstrument < 2048, perInstrument + " B na instrument");
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // Dziennik poprzedniej sesji z dużym wszechświatem: load odtwarza tylko śledzone symbole,
+    // a track() uzupełnia historię jednego symbolu z dziennika
+    @Test
+    void journalReplayKeepsOnlyTrackedSymbols(@TempDir Path dir) throws Exception {
+        System.setProperty("journal.dir", dir.toString());
+        int n = 5_000;
+        int rounds = 20;
+        List<Quote> quotes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) quotes.add(new Quote(String.format("MET_JR%05d", i), 100.0));
+
+        MarketEngine previous = new MarketEngine(null, 0, Runnable::run);
+        previous.load(quotes, List.of());
+        previous.openJournal();
+        for (int round = 0; round < rounds; round++) {
+            for (Quote q : quotes) previous.ticks().publish(SymbolRegistry.DEFAULT.idOf(q.symbol()), 100.0 + round, round);
+            previous.drain(new MarketEngine.Listener() { });
+        }
+        previous.close();
+
+        engine = new MarketEngine(null, 0, Runnable::run);
+        engine.load(quotes, List.of());
+        engine.openJournal();
+        for (Quote q : quotes) {
+            int id = SymbolRegistry.DEFAULT.idOf(q.symbol());
+            assertNull(engine.history().get(id), q.symbol());
+            assertNull(engine.candles().get(id, CandleAggregator.Resolution.M1), q.symbol());
+            assertEquals(0, engine.indicators().historySize(id), q.symbol());
+        }
+
+        int charted = SymbolRegistry.DEFAULT.idOf("MET_JR00042");
+        engine.track(charted);
+        PriceHistory h = engine.history().get(charted);
+        assertEquals(rounds, h.size());
+        assertEquals(100.0 + rounds - 1, h.price(h.size() - 1));
+        assertEquals(rounds, engine.indicators().historySize(charted));
+        assertNotNull(engine.candles().get(charted, CandleAggregator.Resolution.M1));
+        assertNull(engine.history().get(SymbolRegistry.DEFAULT.idOf("MET_JR00043")));
+
+        // dalsze ticki dopisują się za uzupełnioną historią
+        engine.ticks().publish(charted, 200.0, 0);
+        engine.drain(new MarketEngine.Listener() { });
+        assertEquals(rounds + 1, engine.history().get(charted).size());
+    }
+}
@@ -0,0 +1,240 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingEngineTest {
+    private static final int SYMBOL = 2;
+    private static final long QTY = Money.UNITS;
+
+    private record Fill(int id, MatchingEngine.Side side, MatchingEngine.Type type, long quantity, long price) { }
+
+    // Order wraca do puli po onFill - kopiujemy pola od razu
+    private static List<Fill> drain(MatchingEngine engine) {
+        List<Fill> fills = new ArrayList<>();
+        engine.drainFills(o -> fills.add(new Fill(o.getId(), o.getSide(), o.getType(), o.getQuantity(), o.getFillPrice())));
+        return fills;
+    }
+
+    private static List<Integer> ids(List<Fill> fills) {
+        return fills.stream().map(Fill::id).toList();
+    }
+
+    private static int buyLimit(MatchingEngine e, long grosz) {
+        return e.place(SYMBOL, MatchingEngine.Side.BUY, MatchingEngine.Type.LIMIT, QTY, grosz, 0);
+    }
+
+    private static int sellLimit(MatchingEngine e, long grosz) {
+        return e.place(SYMBOL, MatchingEngine.Side.SELL, MatchingEngine.Type.LIMIT, QTY, grosz, 0);
+    }
+
+    @Test
+    void buyLimitFillsAtTickPriceWhenPriceDropsToLimit() {
+        MatchingEngine engine = new MatchingEngine();
+        int id = buyLimit(engine, 10000);
+
+        engine.onPrice(SYMBOL, 100.01);
+        assertFalse(engine.hasFills());
+        engine.onPrice(SYMBOL, 99.50);
+
+        assertEquals(List.of(new Fill(id, MatchingEngine.Side.BUY, MatchingEngine.Type.LIMIT, QTY, 9950)), drain(engine));
+        assertEquals(0, engine.openOrders(SYMBOL));
+    }
+
+    @Test
+    void sellLimitFillsAtExactLimit() {
+        MatchingEngine engine = new MatchingEngine();
+        int id = sellLimit(engine, 10000);
+
+        engine.onPrice(SYMBOL, 100.00);
+
+        assertEquals(List.of(id), ids(drain(engine)));
+    }
+
+    @Test
+    void pricePriorityOnlyCrossedLevelsFill() {
+        MatchingEngine engine = new MatchingEngine();
+        int low = buyLimit(engine, 9900);
+        int high = buyLimit(engine, 10100);
+        int mid = buyLimit(engine, 10000);
+
+        // tick przechodzi tylko przez część księgi - reszta czeka
+        engine.onPrice(SYMBOL, 100.00);
+        assertEquals(List.of(high, mid), ids(drain(engine)));
+        assertEquals(List.of(low), engine.openOrderIds(SYMBOL));
+
+        engine.onPrice(SYMBOL, 98);
+        assertEquals(List.of(low), ids(drain(engine)));
+    }
+
+    @Test
+    void timePriorityWithinLevel() {
+        MatchingEngine engine = new MatchingEngine();
+        int first = sellLimit(engine, 10000);
+        int second = sellLimit(engine, 10000);
+        int third = sellLimit(engine, 10000);
+
+        engine.onPrice(SYMBOL, 101);
+
+        assertEquals(List.of(first, second, third), ids(drain(engine)));
+    }
+
+    @Test
+    void stopBuyTriggersAtStopAndFillsAtTick() {
+        MatchingEngine engine = new MatchingEngine();
+        int id = engine.place(SYMBOL, MatchingEngine.Side.BUY, MatchingEngine.Type.STOP, QTY, 0, 10500);
+
+        engine.onPrice(SYMBOL, 104.99);
+        assertFalse(engine.hasFills());
+        engine.onPrice(SYMBOL, 106);
+
+        assertEquals(List.of(new Fill(id, MatchingEngine.Side.BUY, MatchingEngine.Type.STOP, QTY, 10600)), drain(engine));
+    }
+
+    @Test
+    void stopLimitBecomesRestingLimitWhenNotMarketable() {
+        MatchingEngine engine = new MatchingEngine();
+        // sprzedaż: stop 95, limit 96 - luka w dół przez stop do 94 zostawia limit w księdze
+        int id = engine.place(SYMBOL, MatchingEngine.Side.SELL, MatchingEngine.Type.STOP_LIMIT, QTY, 9600, 9500);
+
+        engine.onPrice(SYMBOL, 94);
+        assertFalse(engine.hasFills());
+        assertEquals(List.of(id), engine.openOrderIds(SYMBOL));
+        String resting = engine.describe(SYMBOL).get(0);
+        assertTrue(resting.contains(" limit ") && !resting.contains(" stop "), resting);
+
+        engine.onPrice(SYMBOL, 95.99);
+        assertFalse(engine.hasFills());
+        engine.onPrice(SYMBOL, 96.10);
+
+        assertEquals(List.of(new Fill(id, MatchingEngine.Side.SELL, MatchingEngine.Type.LIMIT, QTY, 9610)), drain(engine));
+    }
+
+    @Test
+    void stopLimitFillsImmediatelyWhenMarketable() {
+        MatchingEngine engine = new MatchingEngine();
+        int id = engine.place(SYMBOL, MatchingEngine.Side.BUY, MatchingEngine.Type.STOP_LIMIT, QTY, 10300, 10200);
+
+        engine.onPrice(SYMBOL, 102.50);
+
+        assertEquals(List.of(new Fill(id, MatchingEngine.Side.BUY, MatchingEngine.Type.LIMIT, QTY, 10250)), drain(engine));
+        assertEquals(0, engine.openOrders(SYMBOL));
+    }
+
+    @Test
+    void cancelFromMiddleOfQueueKeepsOrder() {
+        MatchingEngine engine = new MatchingEngine();
+        int a = buyLimit(engine, 10000);
+        int b = buyLimit(engine, 10000);
+        int c = buyLimit(engine, 10000);
+
+        assertTrue(engine.cancel(SYMBOL, b));
+        assertFalse(engine.cancel(SYMBOL, b));
+        int d = buyLimit(engine, 10000);
+        engine.onPrice(SYMBOL, 99);
+
+        assertEquals(List.of(a, c, d), ids(drain(engine)));
+    }
+
+    @Test
+    void cancelLastOrderRemovesLevel() {
+        MatchingEngine engine = new MatchingEngine();
+        int a = buyLimit(engine, 10000);
+        int b = buyLimit(engine, 9000);
+
+        assertTrue(engine.cancel(SYMBOL, a));
+        engine.onPrice(SYMBOL, 95);
+        assertFalse(engine.hasFills());
+        assertEquals(List.of(b), engine.openOrderIds(SYMBOL));
+    }
+
+    @Test
+    void cancelAllAndUnknownSymbol() {
+        MatchingEngine engine = new MatchingEngine();
+        buyLimit(engine, 10000);
+        sellLimit(engine, 11000);
+        engine.place(SYMBOL, MatchingEngine.Side.SELL, MatchingEngine.Type.STOP, QTY, 0, 9000);
+
+        engine.cancelAll(SYMBOL);
+
+        assertEquals(0, engine.openOrders(SYMBOL));
+        assertFalse(engine.cancel(SYMBOL + 100, 1));
+        engine.onPrice(SYMBOL + 100, 1);
+    }
+
+    // Numer zlecenia zostaje ważny po recyklingu obiektu: stary numer nie anuluje nowego zlecenia
+    @Test
+    void recycledOrderGetsNewId() {
+        MatchingEngine engine = new MatchingEngine();
+        int first = buyLimit(engine, 10000);
+        engine.onPrice(SYMBOL, 99);
+        drain(engine);
+
+        int second = buyLimit(engine, 9000);
+
+        assertNotEquals(first, second);
+        assertFalse(engine.cancel(SYMBOL, first));
+        assertEquals(List.of(second), engine.openOrderIds(SYMBOL));
+    }
+
+    // Losowe zlecenia i ticki wobec naiwnego przeglądania wszystkich zleceń - wymusza wiele poziomów,
+    // powiększanie i kompaktowanie LevelBook
+    @Test
+    void matchesNaiveModel() {
+        record Open(int id, MatchingEngine.Side side, MatchingEngine.Type type, long limit, long stop) { }
+        MatchingEngine engine = new MatchingEngine();
+        Map<Integer, Open> model = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(5);
+
+        for (int step = 0; step < 50_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 5) {
+                MatchingEngine.Side side = random.nextBoolean() ? MatchingEngine.Side.BUY : MatchingEngine.Side.SELL;
+                MatchingEngine.Type type = MatchingEngine.Type.values()[random.nextInt(3)];
+                long limit = type == MatchingEngine.Type.STOP ? 0 : 9000 + random.nextInt(2000);
+                long stop = type == MatchingEngine.Type.LIMIT ? 0 : 9000 + random.nextInt(2000);
+                int id = engine.place(SYMBOL, side, type, QTY, limit, stop);
+                model.put(id, new Open(id, side, type, limit, stop));
+            } else if (op < 6 && !model.isEmpty()) {
+                List<Integer> open = new ArrayList<>(model.keySet());
+                int id = open.get(random.nextInt(open.size()));
+                assertTrue(engine.cancel(SYMBOL, id));
+                model.remove(id);
+            } else {
+                long k = 9000 + random.nextInt(2000);
+                engine.onPrice(SYMBOL, k / 100.0);
+                Set<Integer> expected = new HashSet<>();
+                for (Open o : List.copyOf(model.values())) {
+                    boolean buy = o.side() == MatchingEngine.Side.BUY;
+                    Open current = o;
+                    if (o.type() != MatchingEngine.Type.LIMIT && (buy ? k >= o.stop() : k <= o.stop())) {
+                        if (o.type() == MatchingEngine.Type.STOP) {
+                            expected.add(o.id());
+                            continue;
+                        }
+                        current = new Open(o.id(), o.side(), MatchingEngine.Type.LIMIT, o.limit(), 0);
+                        model.put(o.id(), current);
+                    }
+                    if (current.type() == MatchingEngine.Type.LIMIT && (buy ? current.limit() >= k : current.limit() <= k)) {
+                        expected.add(o.id());
+                    }
+                }
+                List<Fill> fills = drain(engine);
+                assertEquals(expected, new HashSet<>(ids(fills)), "tick " + k);
+                assertEquals(expected.size(), fills.size());
+                assertTrue(fills.stream().allMatch(f -> f.price() == k));
+                expected.forEach(model::remove);
+            }
+            assertEquals(model.size(), engine.openOrders(SYMBOL));
+        }
+    }
+}
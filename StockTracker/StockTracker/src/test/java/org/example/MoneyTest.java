@@ -0,0 +1,110 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void parseAmountAcceptsCommaAndDotAndTruncates() {
+        assertEquals(1250, Money.parseAmount("12,5"));
+        assertEquals(1250, Money.parseAmount(" 12.50 "));
+        assertEquals(1299, Money.parseAmount("12.999"));
+        assertEquals(-300, Money.parseAmount("-3"));
+        assertEquals(120, Money.parseAmount("+1.2"));
+        assertEquals(50, Money.parseAmount(".5"));
+        assertEquals(500, Money.parseAmount("5."));
+        assertEquals(0, Money.parseAmount("0.001"));
+    }
+
+    @Test
+    void parseQuantityKeepsEightDigits() {
+        assertEquals(12_345, Money.parseQuantity("0.00012345"));
+        assertEquals(12_345, Money.parseQuantity("0.000123459"));
+        assertEquals(3 * Money.UNITS, Money.parseQuantity("3"));
+        assertEquals(1, Money.parseQuantity("0,00000001"));
+    }
+
+    @Test
+    void parseRejectsGarbageAndOverflow() {
+        for (String s : List.of("", " ", "-", ".", "1.2.3", "1,2.3", "12a", "abc", "1 000", "--1")) {
+            assertThrows(NumberFormatException.class, () -> Money.parseAmount(s), s);
+        }
+        assertThrows(NumberFormatException.class, () -> Money.parseAmount("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> Money.parseQuantity("100000000000"));
+        assertThrows(NumberFormatException.class, () -> Money.parseAmount("99999999999999999999"));
+    }
+
+    @Test
+    void formatPadsAndKeepsSign() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("12.50", Money.format(1250));
+        assertEquals("-1234.01", Money.format(-123_401));
+        assertEquals("92233720368547758.07", Money.format(Long.MAX_VALUE));
+    }
+
+    @Test
+    void formatQuantityTruncates() {
+        assertEquals("0.0001", Money.formatQuantity(12_345, 4));
+        assertEquals("1.9999", Money.formatQuantity(199_999_999, 4));
+        assertEquals("2", Money.formatQuantity(2 * Money.UNITS, 0));
+        assertEquals("-0.5000", Money.formatQuantity(-Money.UNITS / 2, 4));
+    }
+
+    @Test
+    void formatParseRoundTrip() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 100_000; i++) {
+            long grosz = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+            assertEquals(grosz, Money.parseAmount(Money.format(grosz)));
+            long units = random.nextLong(-1_000_000_000_000_000L, 1_000_000_000_000_000L);
+            assertEquals(units, Money.parseQuantity(Money.formatQuantity(units, 8)));
+        }
+    }
+
+    @Test
+    void valueRoundsHalfAwayFromZero() {
+        assertEquals(1, Money.value(Money.UNITS / 2, 1));
+        assertEquals(0, Money.value(Money.UNITS / 2 - 1, 1));
+        assertEquals(-1, Money.value(-Money.UNITS / 2, 1));
+        assertEquals(0, Money.value(-(Money.UNITS / 2 - 1), 1));
+        assertEquals(0, Money.value(0, 123_456));
+        assertEquals(6_500_000, Money.value(Money.UNITS, 6_500_000));
+    }
+
+    // Obie ścieżki (iloczyn w long i mulDiv przy przepełnieniu) wobec BigDecimal z HALF_UP
+    @Test
+    void valueMatchesBigDecimalIncludingOverflowPath() {
+        SplittableRandom random = new SplittableRandom(17);
+        BigDecimal units = BigDecimal.valueOf(Money.UNITS);
+        for (int i = 0; i < 500_000; i++) {
+            long qty = random.nextInt(4) == 0 ? random.nextLong(1L << 50) : random.nextLong(100 * Money.UNITS);
+            long price = random.nextLong(1, 100_000_000);
+            if (random.nextInt(5) == 0) qty = -qty;
+            long expected = BigDecimal.valueOf(qty).multiply(BigDecimal.valueOf(price))
+                    .divide(units, 0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, Money.value(qty, price), qty + " * " + price);
+        }
+    }
+
+    @Test
+    void quantityForNeverExceedsAmount() {
+        SplittableRandom random = new SplittableRandom(23);
+        for (int i = 0; i < 200_000; i++) {
+            long amount = random.nextLong(1, 10_000_000_000L);
+            long price = random.nextLong(1, 100_000_000);
+            long qty = Money.quantityFor(amount, price);
+            assertTrue(Money.value(qty, price) <= amount + 1, amount + " / " + price);
+            assertTrue(Money.value(qty + 1, price) >= Money.value(qty, price));
+        }
+        assertThrows(ArithmeticException.class, () -> Money.quantityFor(100, 0));
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioTest {
+    private static final long START = Money.parseAmount("100000");
+
+    @Test
+    void rejectsNonPositiveQuantityAndPrice() {
+        Portfolio p = new Portfolio(START);
+
+        assertFalse(p.buy(1, 0, 1000));
+        assertFalse(p.buy(1, -Money.UNITS, 1000));
+        assertFalse(p.buy(1, Money.UNITS, 0));
+        assertFalse(p.buy(1, Money.UNITS, -1000));
+        assertEquals(START, p.cash());
+        assertEquals(0, p.positions());
+
+        assertTrue(p.buy(1, Money.UNITS, 1000));
+        assertFalse(p.sell(1, 0, 1000));
+        assertFalse(p.sell(1, -Money.UNITS, 1000));
+        assertFalse(p.sell(1, Money.UNITS, 0));
+        assertFalse(p.sell(1, 2 * Money.UNITS, 1000));
+        assertEquals(START - 1000, p.cash());
+        assertEquals(1, p.positions());
+        assertEquals(Money.UNITS, p.quantity(1));
+    }
+
+    @Test
+    void rejectsBuyWithoutCash() {
+        Portfolio p = new Portfolio(1000);
+
+        assertFalse(p.buy(1, 2 * Money.UNITS, 501));
+        assertTrue(p.buy(1, 2 * Money.UNITS, 500));
+        assertEquals(0, p.cash());
+    }
+
+    @Test
+    void positionValuedAtMarketPrice() {
+        Portfolio p = new Portfolio(START);
+        p.onPrice(7, 2000);
+
+        p.buy(7, 3 * Money.UNITS, 1990);
+        assertEquals(6000, p.total());
+
+        p.onPrice(7, 2100);
+        p.onPrice(8, 999);
+        assertEquals(6300, p.total());
+        assertEquals(6300, p.value(7));
+        assertEquals(0, p.value(8));
+    }
+
+    // Gotówka + wartość pozycji ma się zgadzać co do grosza z księgą prowadzoną obok, po milionach
+    // losowych transakcji ułamkowych ilości i zmian kursu. Na koniec sprzedaż wszystkiego:
+    // gotówka = start + zrealizowany wynik.
+    @Test
+    void reconcilesExactlyOverManyRandomTrades() {
+        int symbols = 50;
+        Portfolio p = new Portfolio(START);
+        SplittableRandom random = new SplittableRandom(13);
+        long[] quantities = new long[symbols];
+        long[] prices = new long[symbols];
+        for (int i = 0; i < symbols; i++) {
+            prices[i] = 100 + random.nextInt(100_000);
+            p.onPrice(i, prices[i]);
+        }
+        long costs = 0;
+        long proceeds = 0;
+
+        for (int step = 0; step < 5_000_000; step++) {
+            int id = random.nextInt(symbols);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    long qty = 1 + random.nextLong(3 * Money.UNITS);
+                    long cost = Money.value(qty, prices[id]);
+                    if (p.buy(id, qty, prices[id])) {
+                        quantities[id] += qty;
+                        costs += cost;
+                    } else {
+                        assertTrue(cost > START - costs + proceeds);
+                    }
+                }
+                case 1 -> {
+                    if (quantities[id] == 0) break;
+                    long qty = random.nextBoolean() ? quantities[id] : 1 + random.nextLong(quantities[id]);
+                    assertTrue(p.sell(id, qty, prices[id]));
+                    quantities[id] -= qty;
+                    proceeds += Money.value(qty, prices[id]);
+                }
+                default -> {
+                    prices[id] = Math.max(1, prices[id] + random.nextLong(-500, 501));
+                    p.onPrice(id, prices[id]);
+                }
+            }
+            if (step % 1000 == 0) assertLedger(p, quantities, prices, START - costs + proceeds);
+        }
+        assertLedger(p, quantities, prices, START - costs + proceeds);
+
+        for (int id = 0; id < symbols; id++) {
+            if (quantities[id] == 0) continue;
+            proceeds += Money.value(quantities[id], prices[id]);
+            assertTrue(p.sell(id, quantities[id], prices[id]));
+            quantities[id] = 0;
+        }
+        long realized = proceeds - costs;
+        assertEquals(START + realized, p.cash());
+        assertEquals(0, p.total());
+        assertEquals(0, p.positions());
+    }
+
+    private static void assertLedger(Portfolio p, long[] quantities, long[] prices, long expectedCash) {
+        long total = 0;
+        int positions = 0;
+        for (int id = 0; id < quantities.length; id++) {
+            assertEquals(quantities[id], p.quantity(id));
+            total += Money.value(quantities[id], prices[id]);
+            if (quantities[id] != 0) positions++;
+        }
+        assertEquals(expectedCash, p.cash());
+        assertEquals(total, p.total());
+        assertEquals(positions, p.positions());
+    }
+}
@@ -0,0 +1,231 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cały łańcuch providerów na lokalnej atrapie (StubQuoteServer) - bez internetu.
+class QuoteChainTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private StubQuoteServer stub;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = StubQuoteServer.start(0);
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop();
+    }
+
+    private QuoteChain cryptoChain(int failureThreshold, long openMillis) {
+        QuoteEndpoints endpoints = stub.endpoints();
+        return new QuoteChain(List.of(
+                new BinanceProvider(httpClient, endpoints.binance(), TIMEOUT),
+                new CoinCapProvider(httpClient, endpoints.coinCap(), TIMEOUT)), failureThreshold, openMillis);
+    }
+
+    @Test
+    void binanceAnswersFirst() {
+        stub.setCryptoUsd("BTC", 64000.0);
+        QuoteChain chain = cryptoChain(3, 30_000);
+
+        assertEquals(64000.0, chain.fetch("BTC"), 1e-6);
+        assertEquals(1, stub.requestCount("binance"));
+        assertEquals(0, stub.requestCount("coincap"));
+    }
+
+    @Test
+    void failsOverFromBinanceToCoinCap() {
+        stub.setFailing("binance", true);
+        QuoteChain chain = cryptoChain(3, 30_000);
+
+        assertEquals(65000.0, chain.fetch("BTC"), 1e-6);
+        assertEquals(1, stub.requestCount("binance"));
+        assertEquals(1, stub.requestCount("coincap"));
+    }
+
+    @Test
+    void allProvidersDownGivesMinusOne() {
+        stub.setFailing("binance", true);
+        stub.setFailing("coincap", true);
+
+        assertEquals(-1.0, cryptoChain(3, 30_000).fetch("BTC"));
+    }
+
+    @Test
+    void breakerOpensThenProbesAndCloses() throws Exception {
+        stub.setFailing("binance", true);
+        QuoteChain chain = cryptoChain(2, 200);
+
+        chain.fetch("BTC");
+        assertEquals(CircuitBreaker.State.CLOSED, chain.states().get("Binance"));
+        chain.fetch("BTC");
+        assertEquals(CircuitBreaker.State.OPEN, chain.states().get("Binance"));
+
+        // otwarty bezpiecznik - Binance pomijany, odpowiada CoinCap
+        long before = stub.requestCount("binance");
+        assertEquals(65000.0, chain.fetch("BTC"), 1e-6);
+        assertEquals(before, stub.requestCount("binance"));
+
+        // po openMillis zapytanie próbne; błąd otwiera bezpiecznik ponownie
+        Thread.sleep(250);
+        chain.fetch("BTC");
+        assertEquals(before + 1, stub.requestCount("binance"));
+        assertEquals(CircuitBreaker.State.OPEN, chain.states().get("Binance"));
+
+        // kolejna próba po naprawie API zamyka bezpiecznik
+        stub.setFailing("binance", false);
+        Thread.sleep(250);
+        assertEquals(65000.0, chain.fetch("BTC"), 1e-6);
+        assertEquals(CircuitBreaker.State.CLOSED, chain.states().get("Binance"));
+        assertEquals(before + 2, stub.requestCount("binance"));
+    }
+
+    @Test
+    void halfOpenLetsThroughSingleProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+        Thread.sleep(80);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    // Przerwana próba (deadline ParallelFetcher przerywa wątek) nie może zablokować providera na zawsze
+    @Test
+    void interruptedProbeReleasesHalfOpenBreaker() throws Exception {
+        stub.setFailing("binance", true);
+        QuoteChain chain = cryptoChain(1, 200);
+        chain.fetch("BTC");
+        assertEquals(CircuitBreaker.State.OPEN, chain.states().get("Binance"));
+
+        stub.setFailing("binance", false);
+        stub.setDelay("binance", 5_000);
+        Thread.sleep(250);
+        long before = stub.requestCount("binance");
+        Thread probe = new Thread(() -> chain.fetch("BTC"));
+        probe.start();
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (stub.requestCount("binance") == before && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, chain.states().get("Binance"));
+        probe.interrupt();
+        probe.join(2_000);
+        assertFalse(probe.isAlive());
+        assertEquals(CircuitBreaker.State.OPEN, chain.states().get("Binance"));
+
+        // następne zapytanie znów jest próbą i po sukcesie zamyka bezpiecznik
+        stub.setDelay("binance", 0);
+        assertEquals(65000.0, chain.fetch("BTC"), 1e-6);
+        assertEquals(before + 2, stub.requestCount("binance"));
+        assertEquals(CircuitBreaker.State.CLOSED, chain.states().get("Binance"));
+    }
+
+    @Test
+    void abortOutsideProbeKeepsState() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 30_000);
+        breaker.recordFailure();
+        breaker.recordAbort();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        breaker.recordAbort();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void stooqSkipsNdRowsInPartialBatch() throws Exception {
+        stub.setStooqPrice("pko", 61.25);
+        StooqBatchProvider stooq = new StooqBatchProvider(httpClient, stub.endpoints().stooq(), TIMEOUT);
+
+        // "xyz" nie istnieje - atrapa zwraca wiersz N/D, jak prawdziwy Stooq
+        Map<String, Double> prices = stooq.fetchQuotes(List.of("pko", "xyz", "ccc"));
+
+        assertEquals(Map.of("pko", 61.25, "ccc", 180.0), prices);
+    }
+
+    @Test
+    void stooqParsesRowsOutOfOrder() {
+        StooqBatchProvider stooq = new StooqBatchProvider(httpClient, "http://localhost", TIMEOUT);
+        byte[] csv = ("Symbol,Data,Czas,Otwarcie,Najwyzszy,Najnizszy,Zamkniecie\r\n"
+                + "CCC,2024-01-05,17:00:00,1,1,1,181.5\r\n"
+                + "ZAB,N/D,N/D,N/D,N/D,N/D,N/D\r\n"
+                + "PKO,2024-01-05,17:00:00,1,1,1,58.10\r\n").getBytes();
+
+        Map<String, Double> prices = stooq.parseChunk(csv, csv.length, List.of("pko", "zab", "ccc"));
+
+        assertEquals(Map.of("pko", 58.10, "ccc", 181.5), prices);
+    }
+
+    @Test
+    void stooqSplitsLongListsIntoChunks() {
+        StooqBatchProvider stooq = new StooqBatchProvider(httpClient, "http://localhost", TIMEOUT);
+        List<String> symbols = IntStream.range(0, 1000).mapToObj(i -> "s" + i).toList();
+
+        List<List<String>> chunks = stooq.chunks(symbols);
+
+        assertTrue(chunks.size() > 1);
+        assertEquals(symbols, chunks.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void stooqChainFallsBackOnlyForMissingSymbols() {
+        StooqBatchProvider stooq = new StooqBatchProvider(httpClient, stub.endpoints().stooq(), TIMEOUT);
+        QuoteProvider backup = new QuoteProvider() {
+            @Override
+            public String name() { return "Backup"; }
+
+            @Override
+            public Map<String, Double> fetchQuotes(List<String> symbols) {
+                assertEquals(List.of("xyz"), symbols);
+                return Map.of("xyz", 10.0);
+            }
+        };
+
+        Map<String, Double> prices = new QuoteChain(List.of(stooq, backup)).fetch(List.of("pko", "xyz"));
+
+        assertEquals(Map.of("pko", 58.0, "xyz", 10.0), prices);
+    }
+
+    @Test
+    void nbpParsesWholeTable() throws Exception {
+        NbpProvider nbp = new NbpProvider(httpClient, stub.endpoints().nbp(), TIMEOUT);
+
+        Map<String, Double> rates = nbp.fetchTable();
+
+        assertEquals(Map.of("usd", 3.9812, "eur", 4.3105, "chf", 4.5230, "gbp", 5.0466), rates);
+        assertEquals(1, stub.requestCount("nbp"));
+    }
+
+    @Test
+    void nbpFailsOnEmptyTable() {
+        NbpProvider nbp = new NbpProvider(httpClient, "http://localhost", TIMEOUT);
+        byte[] json = "[{\"table\":\"A\",\"rates\":[]}]".getBytes();
+
+        assertThrows(IOException.class, () -> nbp.parseTable(json, json.length));
+    }
+
+    @Test
+    void nbpUnknownCurrencyFails() {
+        NbpProvider nbp = new NbpProvider(httpClient, stub.endpoints().nbp(), TIMEOUT);
+
+        assertThrows(IOException.class, () -> nbp.fetchQuotes(List.of("usd", "jpy")));
+    }
+}
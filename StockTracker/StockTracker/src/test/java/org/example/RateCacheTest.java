@@ -0,0 +1,160 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateCacheTest {
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+
+    // Zegar przesuwany ręcznie
+    private static final class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(LocalDateTime time) { now = time.atZone(WARSAW).toInstant(); }
+
+        void advance(Duration d) { now = now.plus(d); }
+
+        @Override
+        public ZoneId getZone() { return WARSAW; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public Instant instant() { return now; }
+    }
+
+    private static ZonedDateTime warsaw(String time) {
+        return LocalDateTime.parse(time).atZone(WARSAW);
+    }
+
+    @Test
+    void nextPublicationSameDayBeforeNoon() {
+        // 2024-01-08 to poniedziałek
+        assertEquals(warsaw("2024-01-08T12:30"), RateCache.nextPublication(warsaw("2024-01-08T10:00")));
+    }
+
+    @Test
+    void nextPublicationNextDayAfterPublication() {
+        assertEquals(warsaw("2024-01-09T12:30"), RateCache.nextPublication(warsaw("2024-01-08T12:30")));
+        assertEquals(warsaw("2024-01-09T12:30"), RateCache.nextPublication(warsaw("2024-01-08T18:00")));
+    }
+
+    @Test
+    void nextPublicationSkipsWeekend() {
+        assertEquals(warsaw("2024-01-15T12:30"), RateCache.nextPublication(warsaw("2024-01-12T13:00")));
+        assertEquals(warsaw("2024-01-15T12:30"), RateCache.nextPublication(warsaw("2024-01-13T09:00")));
+        assertEquals(warsaw("2024-01-15T12:30"), RateCache.nextPublication(warsaw("2024-01-14T23:59")));
+    }
+
+    @Test
+    void expiryIsEarlierOfTtlAndPublication() {
+        TestClock clock = new TestClock(LocalDateTime.parse("2024-01-08T10:00"));
+        RateCache shortTtl = new RateCache(codes -> Map.of(), Duration.ofMinutes(30), clock);
+        RateCache longTtl = new RateCache(codes -> Map.of(), Duration.ofHours(12), clock);
+
+        assertEquals(warsaw("2024-01-08T10:30").toInstant(), shortTtl.expiryFor(clock.instant()));
+        assertEquals(warsaw("2024-01-08T12:30").toInstant(), longTtl.expiryFor(clock.instant()));
+    }
+
+    @Test
+    void cachedUntilPublicationThenReloaded() {
+        TestClock clock = new TestClock(LocalDateTime.parse("2024-01-08T10:00"));
+        AtomicInteger loads = new AtomicInteger();
+        RateCache cache = new RateCache(codes -> Map.of("usd", 4.0 + loads.incrementAndGet() / 100.0),
+                Duration.ofHours(12), clock);
+
+        assertEquals(4.01, cache.get("usd"));
+        clock.advance(Duration.ofHours(2));
+        assertEquals(4.01, cache.get("usd"));
+        assertEquals(1, loads.get());
+
+        clock.advance(Duration.ofMinutes(31));
+        assertEquals(4.02, cache.get("usd"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void staleRateWhenLoaderFails() {
+        TestClock clock = new TestClock(LocalDateTime.parse("2024-01-08T10:00"));
+        AtomicInteger loads = new AtomicInteger();
+        RateCache cache = new RateCache(codes -> {
+            if (loads.incrementAndGet() > 1) throw new IllegalStateException("NBP nie odpowiada");
+            return Map.of("usd", 3.98);
+        }, Duration.ofMinutes(10), clock);
+
+        assertEquals(3.98, cache.get("usd"));
+        clock.advance(Duration.ofMinutes(11));
+        assertEquals(3.98, cache.get("usd"));
+        assertEquals(-1.0, cache.get("jpy"));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        RateCache cache = new RateCache(codes -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return Map.of("usd", 3.98, "eur", 4.31);
+        }, Duration.ofHours(1), Clock.system(WARSAW));
+
+        List<Thread> threads = new ArrayList<>();
+        List<Double> results = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 16; i++) {
+            threads.add(Thread.ofVirtual().start(() -> results.add(cache.get("usd"))));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread t : threads) t.join();
+
+        assertEquals(1, loads.get());
+        assertEquals(16, results.size());
+        assertTrue(results.stream().allMatch(r -> r == 3.98));
+    }
+
+    @Test
+    void errorInLoaderDoesNotHangWaiters() {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RateCache cache = new RateCache(codes -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new StackOverflowError();
+        }, Duration.ofHours(1), Clock.system(WARSAW));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Thread loader = Thread.ofVirtual().start(() -> assertThrows(StackOverflowError.class, () -> cache.get("usd")));
+            loading.await();
+            double[] waiter = new double[1];
+            Thread joiner = Thread.ofVirtual().start(() -> waiter[0] = cache.get("usd"));
+            Thread.sleep(100);
+            release.countDown();
+            loader.join();
+            joiner.join();
+            assertEquals(-1.0, waiter[0]);
+        });
+    }
+}
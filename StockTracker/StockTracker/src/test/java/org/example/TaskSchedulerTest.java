@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSchedulerTest {
+    private final TaskScheduler scheduler = new TaskScheduler("test", 1);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    // Error z zadania jest liczony jak wyjątek, a zadanie dalej chodzi
+    @Test
+    void errorDoesNotStopPeriodicTask() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TaskScheduler.Task task = scheduler.schedule("error", TaskScheduler.Policy.FIXED_DELAY, 0, 10, TimeUnit.MILLISECONDS, () -> {
+            calls.incrementAndGet();
+            throw new AssertionError("test");
+        });
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (calls.get() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+
+        assertTrue(calls.get() >= 3, calls.get() + " wykonań");
+        assertTrue(task.failures() >= 2);
+        assertTrue(task.runs() >= 2);
+    }
+
+    @Test
+    void runtimeExceptionIsCounted() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TaskScheduler.Task task = scheduler.schedule("runtime", TaskScheduler.Policy.FIXED_RATE, 0, 10, TimeUnit.MILLISECONDS, () -> {
+            if (calls.incrementAndGet() == 1) throw new IllegalStateException("test");
+        });
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (calls.get() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+
+        assertTrue(calls.get() >= 3);
+        assertEquals(1, task.failures());
+    }
+}